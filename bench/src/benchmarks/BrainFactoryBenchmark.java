@@ -0,0 +1,59 @@
+/* ******************************************************
+ * Simovies - Cout d'instanciation d'un cerveau (JMH).
+ * Compare le chemin de HardCodedParameters.instantiate (Class.forName puis
+ * Class.newInstance a chaque bot) a supportGUI.BrainRegistry (classe
+ * resolue une fois, MethodHandle du constructeur). BrainCanevas isole le
+ * cout de la fabrique; un bot d'equipe y ajoute celui de son constructeur
+ * (grilles, planificateur).
+ * ******************************************************/
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import characteristics.IBrain;
+import characteristics.MatchConfig;
+import supportGUI.BrainRegistry;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BrainFactoryBenchmark {
+  @Param({ "BrainCanevas", "TeamAMainBotMarssoMougamadoubougary" })
+  public String brain;
+
+  private String className;
+
+  //---SETUP---//
+  @Setup
+  public void setup() {
+    className = "algorithms."+brain;
+    BrainRegistry.validate(MatchConfig.DEFAULT.withBrains(className, className, className, className));
+  }
+
+  //---BENCHMARKS---//
+  @Benchmark
+  @SuppressWarnings("deprecation")
+  public IBrain reflective() throws ReflectiveOperationException {
+    return IBrain.class.cast(Class.forName(className).newInstance());
+  }
+
+  @Benchmark
+  public IBrain registry() {
+    return BrainRegistry.create(className);
+  }
+}
@@ -0,0 +1,92 @@
+/* ******************************************************
+ * Simovies - Cout de Brain.step() par cerveau (JMH).
+ * Chaque cerveau de src/algorithms tourne sur un ScriptedBot dont le radar
+ * rend 0, 5 ou 30 contacts. Lancer avec le profileur gc pour le debit
+ * d'allocation: ant bench (par defaut -prof gc).
+ * ******************************************************/
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import characteristics.IFrontSensorResult;
+import characteristics.IRadarResult;
+import characteristics.Parameters;
+import robotsimulator.Brain;
+import robotsimulator.RadarResult;
+import robotsimulator.ScriptedBot;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BrainStepBenchmark {
+  //---PARAMETERS---//
+  private static final int FRAMES = 64; //longueur du scenario, rejoue en boucle
+  private static final IRadarResult.Types[] CONTACT_TYPES = {
+    IRadarResult.Types.OpponentMainBot, IRadarResult.Types.TeamMainBot, IRadarResult.Types.OpponentSecondaryBot,
+    IRadarResult.Types.Wreck, IRadarResult.Types.TeamSecondaryBot, IRadarResult.Types.BULLET
+  };
+
+  @Param({ "BrainCanevas", "RandomFire", "CampFire", "CampBot", "Mule", "BootingBerzerk", "HighwayFugitive", "Combinaison",
+           "TeamAMainBotMarssoMougamadoubougary", "TeamASecondaryBotMarssoMougamadoubougary",
+           "TeamBMainBotMarssoMougamadoubougary", "TeamBSecondaryBotMarssoMougamadoubougary" })
+  public String brain;
+
+  @Param({ "0", "5", "30" })
+  public int contacts;
+
+  private ScriptedBot bot;
+
+  //---SETUP---//
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    Brain instance = (Brain) Class.forName("algorithms."+brain).getDeclaredConstructor().newInstance();
+    bot = new ScriptedBot(instance, Parameters.teamAMainBotSpeed, Parameters.teamAMainBotStepTurnAngle,
+                          Parameters.EAST, Parameters.teamAMainBotHealth, radarScenario(contacts), frontScenario());
+    bot.activate();
+  }
+
+  //contacts repartis autour du bot, qui tournent lentement d'un tick a l'autre
+  static RadarResult[][] radarScenario(int contacts) {
+    RadarResult[][] frames = new RadarResult[FRAMES][contacts];
+    for (int t = 0; t < FRAMES; t++)
+      for (int i = 0; i < contacts; i++) {
+        double direction = 2*Math.PI*i/contacts + 0.05*t;
+        double distance = 150 + (37*i + 11*t) % 800;
+        frames[t][i] = new RadarResult(CONTACT_TYPES[i % CONTACT_TYPES.length], direction, distance,
+                                       (CONTACT_TYPES[i % CONTACT_TYPES.length] == IRadarResult.Types.BULLET) ? Parameters.bulletRadius : 50);
+      }
+    return frames;
+  }
+
+  //voie libre la plupart du temps, un mur ou une epave de temps en temps
+  static IFrontSensorResult.Types[] frontScenario() {
+    IFrontSensorResult.Types[] frames = new IFrontSensorResult.Types[FRAMES];
+    for (int t = 0; t < FRAMES; t++) {
+      if (t % 32 == 31) frames[t] = IFrontSensorResult.Types.Wreck;
+      else if (t % 16 == 15) frames[t] = IFrontSensorResult.Types.WALL;
+      else frames[t] = IFrontSensorResult.Types.NOTHING;
+    }
+    return frames;
+  }
+
+  //---BENCHMARKS---//
+  @Benchmark
+  public void step() {
+    bot.step();
+  }
+}
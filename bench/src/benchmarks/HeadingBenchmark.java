@@ -0,0 +1,90 @@
+/* ******************************************************
+ * Simovies - Cout par appel des calculs de cap (JMH).
+ * Compare les helpers recopies dans chaque bot avant algorithms.Heading
+ * (boucles while de normalisation, Math.sin) a Heading (pas entiers,
+ * modulo, table). Les caps testes sont sur la grille des stepTurn, dont
+ * une partie a plusieurs tours de 0: getHeading() n'est pas borne.
+ * ******************************************************/
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.Heading;
+import characteristics.Parameters;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeadingBenchmark {
+  //---PARAMETERS---//
+  private static final int SAMPLES = 1024; //puissance de 2
+  private static final double TOLERANCE = 0.1; //tolerance de TeamAMainBot avant Heading
+  private static final int TOLERANCE_STEPS = 3;
+
+  //---VARIABLES---//
+  private final double[] headings = new double[SAMPLES], targets = new double[SAMPLES];
+  private final int[] steps = new int[SAMPLES];
+  private int i;
+
+  //---SETUP---//
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(1);
+    double[] cardinals = { Parameters.EAST, Parameters.SOUTH, Parameters.WEST, Parameters.NORTH };
+    for (int k = 0; k < SAMPLES; k++) {
+      int turns = random.nextInt(-5, 6);
+      headings[k] = random.nextInt(Heading.STEPS)*Parameters.teamAMainBotStepTurnAngle + turns*2*Math.PI;
+      targets[k] = (k % 2 == 0) ? cardinals[random.nextInt(4)] : random.nextDouble(-Math.PI, Math.PI);
+      steps[k] = Heading.toSteps(headings[k]);
+    }
+  }
+  private int next() { return i = (i+1) & (SAMPLES-1); }
+
+  //---LEGACY---//
+  private static boolean legacyIsHeading(double heading, double dir) {
+    double diff = Math.abs(heading - dir);
+    while (diff > Math.PI) diff = Math.abs(diff - 2 * Math.PI);
+    return diff < TOLERANCE;
+  }
+  private static boolean legacyTurnRight(double heading, double dir) {
+    double diff = dir - heading;
+    while (diff > Math.PI) diff -= 2 * Math.PI;
+    while (diff < -Math.PI) diff += 2 * Math.PI;
+    return diff > 0;
+  }
+
+  //---BENCHMARKS---//
+  @Benchmark
+  public boolean isHeadingLegacy() { int k = next(); return legacyIsHeading(headings[k], targets[k]); }
+  @Benchmark
+  public boolean isHeadingSteps() { int k = next(); return Heading.isHeading(headings[k], targets[k], TOLERANCE_STEPS); }
+
+  //chemin de SnapshotBrain.isHeading: cap du bot deja en pas pour le tick
+  @Benchmark
+  public boolean isHeadingCachedSteps() { int k = next(); return Math.abs(Heading.delta(steps[k], Heading.toSteps(targets[k]))) <= TOLERANCE_STEPS; }
+
+  @Benchmark
+  public boolean turnLegacy() { int k = next(); return legacyTurnRight(headings[k], targets[k]); }
+  @Benchmark
+  public boolean turnSteps() { int k = next(); return Heading.turn(headings[k], targets[k]) == Parameters.Direction.RIGHT; }
+
+  @Benchmark
+  public double sinMath() { int k = next(); return Math.sin(headings[k]); }
+  @Benchmark
+  public double sinTable() { int k = next(); return Heading.sin(steps[k]); }
+}
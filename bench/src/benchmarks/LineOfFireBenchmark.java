@@ -0,0 +1,69 @@
+/* ******************************************************
+ * Simovies - Cout du test de ligne de tir (JMH).
+ * LineOfFire.isClear() contre CONTACTS amis/epaves deja charges: c'est le
+ * cout ajoute a chaque tir garde (load() est fait une fois par tick).
+ * Directions tirees au setup, un quart bloquees environ.
+ * ******************************************************/
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.LineOfFire;
+import characteristics.IRadarResult;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LineOfFireBenchmark {
+  //---PARAMETERS---//
+  private static final int SAMPLES = 1024; //puissance de 2
+  private static final double RANGE = 1000;
+  @Param({ "5", "10", "30" })
+  private int contacts;
+
+  //---VARIABLES---//
+  private final LineOfFire lineOfFire = new LineOfFire();
+  private final double[] directions = new double[SAMPLES];
+  private int i;
+
+  //---SETUP---//
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(1);
+    ArrayList<IRadarResult> radar = new ArrayList<IRadarResult>();
+    IRadarResult.Types[] friendly = { IRadarResult.Types.TeamMainBot, IRadarResult.Types.TeamSecondaryBot, IRadarResult.Types.Wreck };
+    for (int c = 0; c < contacts; c++)
+      radar.add(contact(friendly[c % 3], random.nextDouble(-Math.PI, Math.PI), random.nextDouble(150, 1000)));
+    lineOfFire.load(radar);
+    for (int k = 0; k < SAMPLES; k++) directions[k] = random.nextDouble(-Math.PI, Math.PI);
+  }
+  private static IRadarResult contact(final IRadarResult.Types type, final double direction, final double distance) {
+    return new IRadarResult() {
+      public Types getObjectType() { return type; }
+      public double getObjectDirection() { return direction; }
+      public double getObjectDistance() { return distance; }
+      public double getObjectRadius() { return 50; }
+    };
+  }
+
+  //---BENCHMARKS---//
+  @Benchmark
+  public boolean isClear() { i = (i+1) & (SAMPLES-1); return lineOfFire.isClear(directions[i], RANGE); }
+}
@@ -0,0 +1,103 @@
+/* ******************************************************
+ * Simovies - Cout du planificateur incremental (JMH).
+ * Arene avec WRECKS epaves tirees au hasard, trajet d'un coin a l'autre.
+ *   tick:    compute() avec le budget d'un tick de SnapshotBrain.navigateTo
+ *            (50 expansions) sur un plan qui repart de zero: le plafond
+ *            par tick, quel que soit le nombre d'epaves
+ *   repair:  une nouvelle epave sur le plan, puis compute() jusqu'a
+ *            convergence: la reparation locale de D* Lite
+ *   replan:  meme situation, plan refait de zero (setGoal): ce que la
+ *            reparation evite
+ * Grille et plan refaits avant chaque appel (Level.Invocation), hors mesure.
+ * ******************************************************/
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.OccupancyGrid;
+import algorithms.PathPlanner;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathPlannerBenchmark {
+  //---PARAMETERS---//
+  private static final int BUDGET = 50;
+  private static final double RADIUS = 50;
+  @Param({ "0", "10", "30" })
+  private int wrecks;
+
+  //---VARIABLES---//
+  private final SplittableRandom random = new SplittableRandom(1);
+  private OccupancyGrid grid;
+  private PathPlanner planner;
+  private int start, goal, blocking;
+
+  //---SETUP---//
+  @Setup(Level.Invocation)
+  public void setup() {
+    grid = new OccupancyGrid();
+    planner = new PathPlanner(grid, RADIUS);
+    for (int w = 0; w < wrecks; w++) grid.markDisk(random.nextDouble(3000), random.nextDouble(2000), RADIUS);
+    planner.syncObstacles(Integer.MAX_VALUE);
+    start = planner.nearestFree(planner.cell(200, 200), 10);
+    goal = planner.nearestFree(planner.cell(2800, 1800), 10);
+    planner.setStart(start);
+    planner.setGoal(goal);
+    while (!planner.compute(BUDGET));
+    //cellule du plan a quelques pas du bot
+    blocking = start;
+    for (int k = 0; k < 6; k++) {
+      int next = planner.nextCell();
+      if (next < 0) break;
+      blocking = next;
+      planner.setStart(next);
+      while (!planner.compute(BUDGET));
+    }
+    planner.setStart(start);
+    while (!planner.compute(BUDGET));
+  }
+
+  //---BENCHMARKS---//
+  @Benchmark
+  public boolean tick() {
+    planner.setGoal(start);
+    planner.setStart(goal);
+    return planner.compute(BUDGET);
+  }
+
+  @Benchmark
+  public int repair() {
+    grid.markDisk(planner.centerX(blocking), planner.centerY(blocking), RADIUS);
+    planner.syncObstacles(Integer.MAX_VALUE);
+    while (!planner.compute(BUDGET));
+    return planner.nextCell();
+  }
+
+  @Benchmark
+  public int replan() {
+    grid.markDisk(planner.centerX(blocking), planner.centerY(blocking), RADIUS);
+    planner.syncObstacles(Integer.MAX_VALUE);
+    planner.setGoal(start);
+    planner.setGoal(goal);
+    while (!planner.compute(BUDGET));
+    return planner.nextCell();
+  }
+}
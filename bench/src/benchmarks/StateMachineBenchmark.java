@@ -0,0 +1,137 @@
+/* ******************************************************
+ * Simovies - Cout d'un tick de machine a etats (JMH).
+ * Meme automate a 4 etats (celui de TeamAMainBot: patrouille, rush,
+ * engagement, contournement) ecrit de trois facons: constantes int et
+ * switch, comme les bots avant algorithms.StateMachine; StateMachine avec
+ * trace inactive (cas des matchs), drapeaux et transitions par la table,
+ * actions par une chaine de is() comme dans les cerveaux; la meme,
+ * tracee au niveau DEBUG dans un tampon BotLog. Les evenements (ennemi vu, obstacle...) sont tires une
+ * fois pour toutes; lancer avec -prof gc pour verifier 0 octet par tick
+ * hors trace.
+ * ******************************************************/
+package benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.BrainCanevas;
+import algorithms.StateMachine;
+import characteristics.BotLog;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateMachineBenchmark {
+  //---PARAMETERS---//
+  private static final int EVENTS = 1024; //puissance de 2
+  private static final int EVENT_KINDS = 16; //0: ennemi vu, 1: signal, 2: obstacle, 3: cible perdue, 4: contournement fini
+  private static final int PATROL = 0, RUSHING = 1, ENGAGING = 2, NAVIGATING = 3;
+  private enum Mode { PATROL, RUSHING, ENGAGING, NAVIGATING }
+  private static final int SCANNING = 1;
+
+  //---VARIABLES---//
+  private final int[] events = new int[EVENTS];
+  private int i,event,work;
+  private int state,previousState;
+  private StateMachine<Mode> machine,tracedMachine;
+
+  //---SETUP---//
+  @Setup
+  public void setup() {
+    SplittableRandom random = new SplittableRandom(1);
+    for (int k = 0; k < EVENTS; k++) events[k] = random.nextInt(EVENT_KINDS);
+    state = previousState = PATROL;
+    //hors match, BotLog est au niveau INFO: trace DEBUG inactive, comme dans les matchs sans -l
+    machine = machine(new BotLog(new BrainCanevas()));
+    machine.start(Mode.PATROL);
+    new BotLog.Buffer(BotLog.Level.DEBUG, BotLog.DEFAULT_CAPACITY).bind();
+    tracedMachine = machine(new BotLog(new BrainCanevas()));
+    tracedMachine.start(Mode.PATROL);
+    BotLog.unbind();
+  }
+  @TearDown
+  public void tearDown() { BotLog.unbind(); }
+
+  private StateMachine<Mode> machine(BotLog log) {
+    return new StateMachine<Mode>(Mode.class, log)
+      .state(Mode.PATROL, SCANNING, Mode.RUSHING, Mode.ENGAGING, Mode.NAVIGATING)
+      .state(Mode.RUSHING, SCANNING, Mode.ENGAGING, Mode.NAVIGATING)
+      .state(Mode.ENGAGING, SCANNING, Mode.PATROL, Mode.RUSHING, Mode.NAVIGATING)
+      .state(Mode.NAVIGATING, 0, Mode.PATROL, Mode.RUSHING, Mode.ENGAGING);
+  }
+
+  private int nextEvent() { return event = events[i = (i+1) & (EVENTS-1)]; }
+
+  //---SWITCH---//
+  @Benchmark
+  public int handWrittenSwitch() {
+    if (nextEvent() == 0 && state != NAVIGATING) state = ENGAGING;
+    switch (state) {
+      case PATROL:
+        work++;
+        if (event == 1) state = RUSHING;
+        else if (event == 2) { previousState = state; state = NAVIGATING; }
+        break;
+      case RUSHING:
+        work += 2;
+        if (event == 2) { previousState = state; state = NAVIGATING; }
+        break;
+      case ENGAGING:
+        work += 3;
+        if (event == 3) state = PATROL;
+        else if (event == 2) { previousState = state; state = NAVIGATING; }
+        break;
+      case NAVIGATING:
+        work--;
+        if (event == 4) state = previousState;
+        break;
+    }
+    return work;
+  }
+
+  //---STATE-MACHINE---//
+  @Benchmark
+  public int stateMachine() {
+    return tick(machine);
+  }
+
+  @Benchmark
+  public int stateMachineTraced() {
+    return tick(tracedMachine);
+  }
+
+  private int tick(StateMachine<Mode> m) {
+    if (nextEvent() == 0 && m.has(SCANNING)) m.goTo(Mode.ENGAGING);
+    if (m.is(Mode.PATROL)) {
+      work++;
+      if (event == 1) m.goTo(Mode.RUSHING);
+      else if (event == 2) m.goTo(Mode.NAVIGATING);
+    } else if (m.is(Mode.RUSHING)) {
+      work += 2;
+      if (event == 2) m.goTo(Mode.NAVIGATING);
+    } else if (m.is(Mode.ENGAGING)) {
+      work += 3;
+      if (event == 3) m.goTo(Mode.PATROL);
+      else if (event == 2) m.goTo(Mode.NAVIGATING);
+    } else if (m.is(Mode.NAVIGATING)) {
+      work--;
+      if (event == 4) m.goTo(m.previous());
+    }
+    return work;
+  }
+}
@@ -0,0 +1,79 @@
+/* ******************************************************
+ * Simovies - Cout par tick du pistage multi-cibles (JMH).
+ * TargetTracker.update() sur CONTACTS contacts radar par tick, en
+ * mouvement circulaire de periode FRAMES ticks (vitesse ~2mm/tick, dans la
+ * porte d'association), plus la requete closestOpponent() des bots.
+ * Frames pre-construites au setup: on ne mesure que le pisteur.
+ * ******************************************************/
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import algorithms.TargetTracker;
+import characteristics.IRadarResult;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrackerBenchmark {
+  //---PARAMETERS---//
+  private static final int FRAMES = 64;
+  private static final double SELF_X = 1500, SELF_Y = 1000;
+  private static final double ORBIT = 20; //rayon du cercle decrit par chaque contact
+  @Param({ "10", "30" })
+  private int contacts;
+
+  //---VARIABLES---//
+  private final ArrayList<ArrayList<IRadarResult>> frames = new ArrayList<ArrayList<IRadarResult>>();
+  private final TargetTracker tracker = new TargetTracker();
+  private int tick;
+
+  //---SETUP---//
+  @Setup
+  public void setup() {
+    IRadarResult.Types[] types = IRadarResult.Types.values();
+    for (int f = 0; f < FRAMES; f++) {
+      ArrayList<IRadarResult> frame = new ArrayList<IRadarResult>();
+      for (int c = 0; c < contacts; c++) {
+        double angle = 2*Math.PI*f/FRAMES + c;
+        double x = SELF_X - 900 + (c % 6)*300 + ORBIT*Math.cos(angle);
+        double y = SELF_Y - 700 + (c / 6)*300 + ORBIT*Math.sin(angle);
+        frame.add(contact(types[c % 5], x, y));
+      }
+      frames.add(frame);
+    }
+  }
+  private static IRadarResult contact(final IRadarResult.Types type, double x, double y) {
+    final double direction = Math.atan2(y-SELF_Y, x-SELF_X), distance = Math.hypot(x-SELF_X, y-SELF_Y);
+    return new IRadarResult() {
+      public Types getObjectType() { return type; }
+      public double getObjectDirection() { return direction; }
+      public double getObjectDistance() { return distance; }
+      public double getObjectRadius() { return 50; }
+    };
+  }
+
+  //---BENCHMARKS---//
+  @Benchmark
+  public int updateAndQuery() {
+    tick++;
+    tracker.update(tick, SELF_X, SELF_Y, frames.get(tick & (FRAMES-1)));
+    return tracker.closestOpponent(SELF_X, SELF_Y);
+  }
+}
@@ -0,0 +1,58 @@
+/* ******************************************************
+ * Simovies - Bot de banc d'essai pour les benchmarks JMH.
+ * Remplace les capteurs de Bot par des scenarios scriptes et ignore les
+ * actions, pour mesurer Brain.step() seul. Place dans le paquet
+ * robotsimulator pour surcharger les methodes protegees de Bot.
+ * Comme SimulatorEngine, chaque detectRadar() rend une nouvelle liste de
+ * nouveaux RadarResult: les appels repetes coutent ce qu'ils coutent en jeu.
+ * ******************************************************/
+package robotsimulator;
+
+import java.util.ArrayList;
+
+import characteristics.IFrontSensorResult;
+import characteristics.IRadarResult;
+
+public class ScriptedBot extends Bot {
+  //---VARIABLES---//
+  private final RadarResult[][] radarFrames;
+  private final FrontSensorResult[] frontFrames;
+  private final double stepTurnAngle;
+  private double heading;
+  private int tick;
+
+  //---CONSTRUCTORS---//
+  //radarFrames[t]: contacts vus au tick t (cyclique), frontFrames[t]: capteur frontal au tick t (cyclique)
+  public ScriptedBot(Brain brain, double speed, double stepTurnAngle, double heading, double health,
+                     RadarResult[][] radarFrames, IFrontSensorResult.Types[] frontFrames) {
+    super(50, 300, speed, stepTurnAngle, 0, 0, heading, health, true, brain, 0);
+    this.radarFrames=radarFrames;
+    this.frontFrames=new FrontSensorResult[frontFrames.length];
+    for (int i = 0; i < frontFrames.length; i++) this.frontFrames[i] = new FrontSensorResult(frontFrames[i]);
+    this.stepTurnAngle=stepTurnAngle;
+    this.heading=heading;
+  }
+
+  //---SCRIPTED-SENSORS---//
+  public void activate() { tick = 0; super.activate(); }
+  public void step() { tick++; super.step(); }
+  public double getHeading() { return heading; }
+  protected FrontSensorResult detectFront() { return frontFrames[tick % frontFrames.length]; }
+  protected ArrayList<IRadarResult> detectRadar() {
+    RadarResult[] frame = radarFrames[tick % radarFrames.length];
+    ArrayList<IRadarResult> results = new ArrayList<IRadarResult>();
+    for (RadarResult r : frame)
+      results.add(new RadarResult(r.getObjectType(), r.getObjectDirection(), r.getObjectDistance(), r.getObjectRadius()));
+    return results;
+  }
+  protected ArrayList<String> fetchAllMessages() { return new ArrayList<String>(); }
+
+  //---IGNORED-ACTIONS---//
+  protected void move() {}
+  protected void moveBack() {}
+  protected void fire(double direction) {}
+  protected void stepTurnLeft() { heading -= stepTurnAngle; }
+  protected void stepTurnRight() { heading += stepTurnAngle; }
+  protected void broadcast(String message) {}
+  protected void addMessage(String message) {}
+}
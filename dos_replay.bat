@@ -0,0 +1,5 @@
+echo off
+mkdir beans
+dir /s /B src\*.java > sourcefiles
+javac -encoding UTF-8 -cp jars\* -s src\ -d beans\ @sourcefiles
+java -cp jars\*;beans\ supportGUI.ReplayViewer %*
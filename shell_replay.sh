@@ -0,0 +1,5 @@
+#!/bin/bash
+rm beans -rf
+mkdir beans
+javac -encoding UTF-8 -cp jars/* -s src/ -d beans/ src/supportGUI/*\.java src/algorithms/*\.java src/characteristics/*\.java src/robotsimulator/*\.java
+java -cp jars/*:beans/ supportGUI.ReplayViewer "$@"
@@ -8,14 +8,13 @@ package algorithms;
 
 import java.util.ArrayList;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 import characteristics.IRadarResult;
 
-public class BootingBerzerk extends Brain {
+public class BootingBerzerk extends SnapshotBrain {
   //---PARAMETERS---//
-  private static final double HEADINGPRECISION = 0.001;
+  private static final int HEADINGPRECISION = 1; //en pas de Heading
 
   //---VARIABLES---//
   private boolean turnTask,turnRight,moveTask,berzerk,back;
@@ -35,10 +34,10 @@ public class BootingBerzerk extends Brain {
     berzerkInerty=0;
     berzerkTurning=false;
     back=false;
-    endTaskDirection=(Math.random()-0.5)*0.5*Math.PI;
+    endTaskDirection=(random().nextDouble()-0.5)*0.5*Math.PI;
     turnRight=(endTaskDirection>0);
     endTaskDirection+=getHeading();
-    lastSeenDirection=Math.random()*Math.PI*2;
+    lastSeenDirection=random().nextDouble()*Math.PI*2;
     if (turnRight) stepTurn(Parameters.Direction.RIGHT);
     else stepTurn(Parameters.Direction.LEFT);
     sendLogMessage("Turning point. Waza!");
@@ -52,7 +51,7 @@ public class BootingBerzerk extends Brain {
     if (berzerk) {
       if (berzerkTurning) {
         endTaskCounter--;
-        if (isHeading(endTaskDirection)) {
+        if (isHeading(endTaskDirection,HEADINGPRECISION)) {
           berzerkTurning=false;
           move();
           sendLogMessage("Moving a head. Waza!");
@@ -92,7 +91,7 @@ public class BootingBerzerk extends Brain {
         turnTask=true;
         moveTask=false;
         berzerk=false;
-        endTaskDirection=(Math.random()-0.5)*2*Math.PI;
+        endTaskDirection=(random().nextDouble()-0.5)*2*Math.PI;
         turnRight=(endTaskDirection>0);
         endTaskDirection+=getHeading();
         if (turnRight) stepTurn(Parameters.Direction.RIGHT);
@@ -152,7 +151,7 @@ public class BootingBerzerk extends Brain {
       }
     }
     if (turnTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
         if (firstMove) {
           firstMove=false;
   	  turnTask=false;
@@ -187,7 +186,7 @@ public class BootingBerzerk extends Brain {
       if (endTaskCounter<0) {
         turnTask=true;
         moveTask=false;
-        endTaskDirection=(Math.random()-0.5)*2*Math.PI;
+        endTaskDirection=(random().nextDouble()-0.5)*2*Math.PI;
         turnRight=(endTaskDirection>0);
         endTaskDirection+=getHeading();
         if (turnRight) stepTurn(Parameters.Direction.RIGHT);
@@ -201,7 +200,4 @@ public class BootingBerzerk extends Brain {
     }
     return;
   }
-  private boolean isHeading(double dir){
-    return Math.abs(Math.sin(getHeading()-dir))<Parameters.teamAMainBotStepTurnAngle;
-  }
 }
@@ -6,11 +6,11 @@
  * ******************************************************/
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.IFrontSensorResult;
 import characteristics.Parameters;
 
-public class CampBot extends Brain {
+public class CampBot extends SnapshotBrain {
+  private static final int HEADINGPRECISION = 1; //en pas de Heading
   private boolean turnTask,turnRight,finished,taskOne;
   private double endTaskDirection;
   private int endTaskCounter;
@@ -31,7 +31,7 @@ public class CampBot extends Brain {
     if (getHealth()<=0) { sendLogMessage("I'm dead.");return; }
     if (finished) { sendLogMessage("Camping point. Task complete.");return; }
     if (turnTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
 	turnTask=false;
         if (taskOne) endTaskCounter=200; else endTaskCounter=100;
 	move();
@@ -54,7 +54,4 @@ public class CampBot extends Brain {
       return;
     }
   }
-  private boolean isHeading(double dir){
-    return Math.abs(Math.sin(getHeading()-dir))<Parameters.teamBSecondaryBotStepTurnAngle;
-  }
 }
@@ -7,21 +7,19 @@
 package algorithms;
 
 import java.util.ArrayList;
-import java.util.Random;
 
-import robotsimulator.Brain;
 import characteristics.IFrontSensorResult;
 import characteristics.IRadarResult;
 import characteristics.Parameters;
 
-public class CampFire extends Brain {
+public class CampFire extends SnapshotBrain {
+  private static final int HEADINGPRECISION = 1; //en pas de Heading
   private boolean turnTask,turnRight,endMove,taskOne;
   private double endTaskDirection;
   private int endTaskCounter,id,latence;
   private static IFrontSensorResult.Types WALL=IFrontSensorResult.Types.WALL;
-  private Random gen;
 
-  public CampFire() { super(); gen = new Random(); }
+  public CampFire() { super(); }
 
   public void activate() {
     latence=-1;
@@ -36,7 +34,7 @@ public class CampFire extends Brain {
     if (getHealth()<=0) { sendLogMessage("I'm dead.");return; }
     if (endMove) { sendLogMessage("Camping point. Task one complete."); campFire(); return; }
     if (turnTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
 	turnTask=false;
         if (taskOne) endTaskCounter=700; else if (id==1) endTaskCounter=400; else endTaskCounter=250;
 	move();
@@ -85,9 +83,9 @@ public class CampFire extends Brain {
     }
     if (latence<0) {
       if (enemyFighters+enemyPatrols==0) {
-        if (id==1) fire(Math.PI*(0.98+0.04*gen.nextDouble()));
-        if (id==2) fire(Math.PI*(0.60+0.4*gen.nextDouble()));
-        if (id==3) fire(Math.PI*(0.60+0.2*gen.nextDouble()));
+        if (id==1) fire(Math.PI*(0.98+0.04*random().nextDouble()));
+        if (id==2) fire(Math.PI*(0.60+0.4*random().nextDouble()));
+        if (id==3) fire(Math.PI*(0.60+0.2*random().nextDouble()));
         latence=21;
         return;
       }
@@ -97,7 +95,4 @@ public class CampFire extends Brain {
     } else latence--;
 
   }
-  private boolean isHeading(double dir) {
-    return Math.abs(Math.sin(getHeading()-dir))<Parameters.teamBSecondaryBotStepTurnAngle;
-  }
 }
@@ -8,13 +8,12 @@ package algorithms;
 
 import java.util.ArrayList;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 
-public class Combinaison extends Brain {
+public class Combinaison extends SnapshotBrain {
   //---PARAMETERS---//
-  private static final double HEADINGPRECISION = 0.001;
+  private static final int HEADINGPRECISION = 0; //en pas de Heading
 
   //---VARIABLES---//
   private boolean turnRightTask,fallBackCoveringFireTask;
@@ -58,7 +57,7 @@ public class Combinaison extends Brain {
       return;
     }
     if (turnRightTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
 	turnRightTask=false;
       } else {
 	stepTurn(Parameters.Direction.RIGHT);
@@ -87,7 +86,4 @@ public class Combinaison extends Brain {
     sendLogMessage("Moving a head. Waza!");
     return;
   }
-  private boolean isHeading(double dir){
-    return Math.abs(Math.sin(getHeading()-dir))<HEADINGPRECISION;
-  }
 }
@@ -0,0 +1,89 @@
+/* ******************************************************
+ * Caps quantifies - bibliotheque d'angles commune aux cerveaux
+ * Un stepTurn tourne de Parameters.*StepTurnAngle = 0.01*PI: le cap d'un bot
+ * reste sur une grille de STEPS = 200 pas par tour. On le manipule comme un
+ * indice entier de pas:
+ *   - normalisation par modulo, sans boucle ni branchement (getHeading()
+ *     n'est pas borne)
+ *   - sin/cos lus dans une table
+ *   - ecart signe et nombre exact de ticks pour atteindre un cap
+ * Les tolerances s'expriment en pas: 0 = cap exact a un demi-pas pres.
+ * ******************************************************/
+package algorithms;
+
+import characteristics.Parameters;
+
+public final class Heading {
+    public static final int STEPS = 200;
+    public static final double STEP = 2 * Math.PI / STEPS;
+    private static final double INVERSE_STEP = STEPS / (2 * Math.PI);
+
+    private static final double[] SIN = new double[STEPS];
+    private static final double[] COS = new double[STEPS];
+    static {
+        for (int s = 0; s < STEPS; s++) {
+            SIN[s] = Math.sin(s * STEP);
+            COS[s] = Math.cos(s * STEP);
+        }
+    }
+
+    private Heading() {}
+
+    // ====== CONVERSIONS ======
+
+    // Pas le plus proche de l'angle, dans [0, STEPS)
+    public static int toSteps(double angle) {
+        return wrap((int) Math.floor(angle * INVERSE_STEP + 0.5) % STEPS);
+    }
+
+    public static double toRadians(int steps) {
+        return wrap(steps % STEPS) * STEP;
+    }
+
+    // s dans (-STEPS, STEPS) ramene dans [0, STEPS) sans branchement
+    private static int wrap(int s) {
+        return s + ((s >> 31) & STEPS);
+    }
+
+    // Angle ramene dans [-PI, PI], sans boucle
+    public static double normalize(double angle) {
+        return Math.IEEEremainder(angle, 2 * Math.PI);
+    }
+
+    // ====== TRIGONOMETRIE ======
+
+    public static double sin(int steps) {
+        return SIN[wrap(steps % STEPS)];
+    }
+
+    public static double cos(int steps) {
+        return COS[wrap(steps % STEPS)];
+    }
+
+    // ====== ECARTS ======
+
+    // Ecart signe de from vers to (pas dans [0, STEPS)), dans [-STEPS/2, STEPS/2): positif = tourner a droite
+    public static int delta(int from, int to) {
+        int e = wrap(to - from + STEPS / 2);  // dans [0, 3*STEPS/2)
+        e -= ((STEPS - 1 - e) >> 31) & STEPS;  // dans [0, STEPS)
+        return e - STEPS / 2;
+    }
+
+    public static int delta(double heading, double target) {
+        return delta(toSteps(heading), toSteps(target));
+    }
+
+    // Nombre exact de stepTurn pour passer du cap heading au cap target
+    public static int ticksTo(double heading, double target) {
+        return Math.abs(delta(heading, target));
+    }
+
+    public static boolean isHeading(double heading, double target, int toleranceSteps) {
+        return ticksTo(heading, target) <= toleranceSteps;
+    }
+
+    // Sens du plus court chemin vers target
+    public static Parameters.Direction turn(double heading, double target) {
+        return (delta(heading, target) > 0) ? Parameters.Direction.RIGHT : Parameters.Direction.LEFT;
+    }
+}
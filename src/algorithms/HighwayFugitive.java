@@ -8,14 +8,13 @@ package algorithms;
 
 import java.util.ArrayList;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 import characteristics.IRadarResult;
 
-public class HighwayFugitive extends Brain {
+public class HighwayFugitive extends SnapshotBrain {
   //---PARAMETERS---//
-  private static final double HEADINGPRECISION = 0.001;
+  private static final int HEADINGPRECISION = 1; //en pas de Heading
 
   //---VARIABLES---//
   private boolean turnTask,turnRight,moveTask,highway,back;
@@ -33,17 +32,17 @@ public class HighwayFugitive extends Brain {
     firstMove=true;
     highway=false;
     back=false;
-    endTaskDirection=(Math.random()-0.5)*0.5*Math.PI;
+    endTaskDirection=(random().nextDouble()-0.5)*0.5*Math.PI;
     turnRight=(endTaskDirection>0);
     endTaskDirection+=getHeading();
-    lastShot=Math.random()*Math.PI*2;
+    lastShot=random().nextDouble()*Math.PI*2;
     if (turnRight) stepTurn(Parameters.Direction.RIGHT);
     else stepTurn(Parameters.Direction.LEFT);
     sendLogMessage("Turning point. Waza!");
   }
   public void step() {
-    if (Math.random()<0.01) {
-      fire(Math.random()*Math.PI*2);
+    if (random().nextDouble()<0.01) {
+      fire(random().nextDouble()*Math.PI*2);
       return;
     }
     ArrayList<IRadarResult> radarResults = detectRadar();
@@ -52,7 +51,7 @@ public class HighwayFugitive extends Brain {
         turnTask=true;
         moveTask=false;
         highway=false;
-        endTaskDirection=(Math.random()-0.5)*2*Math.PI;
+        endTaskDirection=(random().nextDouble()-0.5)*2*Math.PI;
         turnRight=(endTaskDirection>0);
         endTaskDirection+=getHeading();
         if (turnRight) stepTurn(Parameters.Direction.RIGHT);
@@ -60,7 +59,7 @@ public class HighwayFugitive extends Brain {
         sendLogMessage("Turning point. Waza!");
       } else {
         endTaskCounter--;
-        if (Math.random()<0.1) {
+        if (random().nextDouble()<0.1) {
           for (IRadarResult r : radarResults) {
             if (r.getObjectType()==IRadarResult.Types.OpponentMainBot) {
               fire(r.getObjectDirection());
@@ -95,7 +94,7 @@ public class HighwayFugitive extends Brain {
       }
     }
     if (turnTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
         if (firstMove) {
           firstMove=false;
   	  turnTask=false;
@@ -130,7 +129,7 @@ public class HighwayFugitive extends Brain {
       if (endTaskCounter<0) {
         turnTask=true;
         moveTask=false;
-        endTaskDirection=(Math.random()-0.5)*2*Math.PI;
+        endTaskDirection=(random().nextDouble()-0.5)*2*Math.PI;
         turnRight=(endTaskDirection>0);
         endTaskDirection+=getHeading();
         if (turnRight) stepTurn(Parameters.Direction.RIGHT);
@@ -144,7 +143,4 @@ public class HighwayFugitive extends Brain {
     }
     return;
   }
-  private boolean isHeading(double dir){
-    return Math.abs(Math.sin(getHeading()-dir))<Parameters.teamAMainBotStepTurnAngle;
-  }
 }
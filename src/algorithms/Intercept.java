@@ -0,0 +1,66 @@
+/* ******************************************************
+ * Tir avec anticipation - direction d'interception en forme close
+ * Une balle part a MUZZLE du centre du tireur (SimulatorEngine.addBullet:
+ * 1.01 * (rayon du bot + rayon de balle)) et avance de BULLET_SPEED par tick.
+ * Cible en (tx, ty) a vitesse constante (vx, vy), D = cible - tireur:
+ *   |D + V t| = MUZZLE + BULLET_SPEED t
+ *   (V.V - b^2) t^2 + 2 (D.V - MUZZLE b) t + (D.D - MUZZLE^2) = 0
+ * On garde la plus petite racine positive, puis on vise D + V t.
+ * Pas de solution (NaN): cible plus rapide que la balle et qui s'eloigne, ou
+ * point d'impact au-dela de la portee reelle des balles. Ne rien tirer dans
+ * ce cas: un tir rate coute bulletFiringLatency ticks.
+ * Cout: quelques multiplications, une racine et un atan2, sans allocation.
+ * ******************************************************/
+package algorithms;
+
+import characteristics.Parameters;
+
+public final class Intercept {
+    public static final double BULLET_SPEED = Parameters.bulletVelocity;
+    // Portee reelle: SimulatorEngine.addBullet cree les balles avec une portee de 1000, pas Parameters.bulletRange
+    public static final double BULLET_RANGE = 1000;
+
+    private Intercept() {}
+
+    // Distance du centre du tireur a laquelle la balle apparait
+    public static double muzzle(double shooterRadius) {
+        return 1.01 * (shooterRadius + Parameters.bulletRadius);
+    }
+
+    // Temps de vol (ticks) jusqu'a l'impact, NaN si aucun tir ne peut toucher
+    public static double time(double sx, double sy, double shooterRadius, double tx, double ty, double vx, double vy) {
+        double dx = tx - sx, dy = ty - sy;
+        double muzzle = muzzle(shooterRadius);
+        double a = vx * vx + vy * vy - BULLET_SPEED * BULLET_SPEED;
+        double b = dx * vx + dy * vy - muzzle * BULLET_SPEED;  // demi-coefficient
+        double c = dx * dx + dy * dy - muzzle * muzzle;
+        double t;
+        if (c <= 0) {
+            t = 0;  // cible deja au contact de la bouche
+        } else if (Math.abs(a) < 1e-9) {
+            t = (b < 0) ? -c / (2 * b) : Double.NaN;
+        } else {
+            double disc = b * b - a * c;
+            if (disc < 0) return Double.NaN;
+            // Racines c/q et q/a, sans soustraction de termes voisins
+            double q = -(b + Math.copySign(Math.sqrt(disc), b));
+            double r1 = q / a, r2 = (q != 0) ? c / q : Double.NaN;
+            t = smallestPositive(r1, r2);
+        }
+        if (Double.isNaN(t) || muzzle + BULLET_SPEED * t > BULLET_RANGE) return Double.NaN;
+        return t;
+    }
+
+    // Direction de tir absolue, NaN si aucun tir ne peut toucher
+    public static double direction(double sx, double sy, double shooterRadius, double tx, double ty, double vx, double vy) {
+        double t = time(sx, sy, shooterRadius, tx, ty, vx, vy);
+        if (Double.isNaN(t)) return Double.NaN;
+        return Math.atan2(ty + vy * t - sy, tx + vx * t - sx);
+    }
+
+    private static double smallestPositive(double r1, double r2) {
+        boolean ok1 = r1 > 0, ok2 = r2 > 0;  // faux pour NaN
+        if (ok1 && ok2) return Math.min(r1, r2);
+        return ok1 ? r1 : (ok2 ? r2 : Double.NaN);
+    }
+}
@@ -0,0 +1,57 @@
+/* ******************************************************
+ * Ligne de tir - test rayon/cercle contre les obstacles amis
+ * load() recopie une fois par tick les contacts radar a ne pas toucher
+ * (TeamMainBot, TeamSecondaryBot, Wreck) dans des tableaux primitifs:
+ * position relative au tireur et rayon de degagement (rayon du contact +
+ * rayon de balle). isClear(dir, range) teste ensuite la trajectoire:
+ *   proj = d.u (abscisse sur le rayon), perp = d x u (ecart au rayon)
+ *   touche si -clearance < proj < range + clearance et |perp| < clearance
+ * Boucle sans sortie anticipee ni appel: que des multiplications et des
+ * comparaisons sur tableaux, que le JIT peut vectoriser. Le cos/sin de la
+ * direction est calcule une fois par appel, pas par contact.
+ * ******************************************************/
+package algorithms;
+
+import characteristics.IRadarResult;
+import characteristics.Parameters;
+import java.util.ArrayList;
+
+public final class LineOfFire {
+    public static final int MAX_CONTACTS = 32;
+
+    private final double[] dx = new double[MAX_CONTACTS];
+    private final double[] dy = new double[MAX_CONTACTS];
+    private final double[] clearance = new double[MAX_CONTACTS];
+    private int size;
+
+    // Contacts du tick, relatifs au tireur
+    public void load(ArrayList<IRadarResult> radar) {
+        size = 0;
+        for (int i = 0; i < radar.size() && size < MAX_CONTACTS; i++) {
+            IRadarResult r = radar.get(i);
+            IRadarResult.Types type = r.getObjectType();
+            if (type != IRadarResult.Types.TeamMainBot && type != IRadarResult.Types.TeamSecondaryBot
+                && type != IRadarResult.Types.Wreck) continue;
+            dx[size] = r.getObjectDistance() * Math.cos(r.getObjectDirection());
+            dy[size] = r.getObjectDistance() * Math.sin(r.getObjectDirection());
+            clearance[size] = r.getObjectRadius() + Parameters.bulletRadius;
+            size++;
+        }
+    }
+
+    // Vrai si une balle tiree vers dir parcourt range sans toucher d'obstacle ami
+    public boolean isClear(double dir, double range) {
+        if (size == 0) return true;
+        double ux = Math.cos(dir), uy = Math.sin(dir);
+        int hits = 0;
+        for (int i = 0; i < size; i++) {
+            double proj = dx[i] * ux + dy[i] * uy;
+            double perp = dx[i] * uy - dy[i] * ux;
+            double c = clearance[i];
+            hits |= (proj > -c & proj < range + c & perp * perp < c * c) ? 1 : 0;
+        }
+        return hits == 0;
+    }
+
+    public int size() { return size; }
+}
@@ -6,13 +6,12 @@
  * ******************************************************/
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 
-public class Mule extends Brain {
+public class Mule extends SnapshotBrain {
   //---PARAMETERS---//
-  private static final double HEADINGPRECISION = 0.001;
+  private static final int HEADINGPRECISION = 0; //en pas de Heading
 
   //---VARIABLES---//
   private boolean turnLeftTask;
@@ -29,7 +28,7 @@ public class Mule extends Brain {
   }
   public void step() {
     if (turnLeftTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
 	turnLeftTask=false;
 	move();
         sendLogMessage("Moving a head. Waza!");
@@ -44,7 +43,7 @@ public class Mule extends Brain {
       return;
     }
     if (!(detectFront().getObjectType()==IFrontSensorResult.Types.WALL || detectFront().getObjectType()==IFrontSensorResult.Types.Wreck)) {
-      if (Math.random()<0.98) move(); //And what to do when blind blocked?
+      if (random().nextDouble()<0.98) move(); //And what to do when blind blocked?
       else fire(getHeading());
       sendLogMessage("Moving a head. Waza!");
     } else {
@@ -54,7 +53,4 @@ public class Mule extends Brain {
       sendLogMessage("Iceberg at 12 o'clock. Heading 9!");
     }
   }
-  private boolean isHeading(double dir){
-    return Math.abs(Math.sin(getHeading()-dir))<HEADINGPRECISION;
-  }
 }
@@ -0,0 +1,113 @@
+/* ******************************************************
+ * Grille d'occupation - obstacles fixes appris pendant le match
+ * Arene 3000x2000 (Odometry.ARENA_*) decoupee en cellules carrees de
+ * cellSize mm, un bit par cellule dans un long[] (cellule (c, l) = bit
+ * l*cols + c). Les seuls obstacles fixes sont les epaves (un bot detruit ne
+ * bouge plus) et les murs du bord: la grille ne fait que se remplir.
+ * Sources:
+ *   - contact radar Wreck: disque du rayon de l'epave
+ *   - capteur frontal WALL: le point de sortie de l'arene sur l'axe du capteur
+ *   - capteur frontal Wreck: distance inconnue, l'epave est apprise par le
+ *     radar (elle est dans sa portee)
+ * Requetes en O(1): un decalage et un masque. Hors de l'arene = occupe.
+ * Les cellules marquees sont aussi notees dans l'ordre (getMarkedCell): un
+ * planificateur (PathPlanner) ne relit que les nouvelles.
+ * ******************************************************/
+package algorithms;
+
+import characteristics.IRadarResult;
+import java.util.ArrayList;
+
+public final class OccupancyGrid {
+    public static final int DEFAULT_CELL_SIZE = 50;
+
+    private final int cellSize;
+    private final int cols, rows;
+    private final long[] bits;
+    private final int[] marked;  // cellules dans l'ordre de marquage
+    private int occupied;
+
+    public OccupancyGrid() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public OccupancyGrid(int cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("taille de cellule invalide: " + cellSize);
+        this.cellSize = cellSize;
+        cols = (int) Math.ceil(Odometry.ARENA_WIDTH / cellSize);
+        rows = (int) Math.ceil(Odometry.ARENA_HEIGHT / cellSize);
+        bits = new long[(cols * rows + 63) >>> 6];
+        marked = new int[cols * rows];
+    }
+
+    // ====== APPRENTISSAGE ======
+
+    // Epaves du radar, lu depuis (selfX, selfY)
+    public void learnRadar(double selfX, double selfY, ArrayList<IRadarResult> radar) {
+        for (int i = 0; i < radar.size(); i++) {
+            IRadarResult r = radar.get(i);
+            if (r.getObjectType() != IRadarResult.Types.Wreck) continue;
+            markDisk(selfX + r.getObjectDistance() * Math.cos(r.getObjectDirection()),
+                     selfY + r.getObjectDistance() * Math.sin(r.getObjectDirection()), r.getObjectRadius());
+        }
+    }
+
+    // Capteur frontal WALL: le bout du capteur (range devant le bot) est hors de l'arene;
+    // le mur est la ou l'axe du capteur sort de l'arene
+    public void learnWall(double selfX, double selfY, double heading, double range) {
+        double ux = Math.cos(heading), uy = Math.sin(heading);
+        double t = range;
+        if (ux > 0) t = Math.min(t, (Odometry.ARENA_WIDTH - selfX) / ux);
+        if (ux < 0) t = Math.min(t, -selfX / ux);
+        if (uy > 0) t = Math.min(t, (Odometry.ARENA_HEIGHT - selfY) / uy);
+        if (uy < 0) t = Math.min(t, -selfY / uy);
+        mark(clampCol(col(selfX + t * ux)), clampRow(row(selfY + t * uy)));
+    }
+
+    // Toutes les cellules qui touchent le disque
+    public void markDisk(double x, double y, double radius) {
+        int c0 = clampCol(col(x - radius)), c1 = clampCol(col(x + radius));
+        int r0 = clampRow(row(y - radius)), r1 = clampRow(row(y + radius));
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                // point de la cellule le plus proche du centre
+                double nx = Math.max(c * cellSize, Math.min(x, (c + 1) * cellSize));
+                double ny = Math.max(r * cellSize, Math.min(y, (r + 1) * cellSize));
+                if ((nx - x) * (nx - x) + (ny - y) * (ny - y) <= radius * radius) mark(c, r);
+            }
+        }
+    }
+
+    public void mark(int col, int row) {
+        int bit = row * cols + col;
+        long mask = 1L << bit;
+        if ((bits[bit >>> 6] & mask) == 0) {
+            bits[bit >>> 6] |= mask;
+            marked[occupied++] = bit;
+        }
+    }
+
+    // ====== REQUETES ======
+
+    public boolean isOccupied(double x, double y) {
+        return isOccupiedCell(col(x), row(y));
+    }
+
+    public boolean isOccupiedCell(int col, int row) {
+        if (col < 0 || row < 0 || col >= cols || row >= rows) return true;
+        int bit = row * cols + col;
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int col(double x) { return (int) Math.floor(x / cellSize); }
+    public int row(double y) { return (int) Math.floor(y / cellSize); }
+    private int clampCol(int c) { return Math.max(0, Math.min(cols - 1, c)); }
+    private int clampRow(int r) { return Math.max(0, Math.min(rows - 1, r)); }
+
+    public int getCellSize() { return cellSize; }
+    public int getCols() { return cols; }
+    public int getRows() { return rows; }
+    public int getOccupiedCount() { return occupied; }
+    // i-eme cellule marquee (indice ligne*cols + colonne), i < getOccupiedCount()
+    public int getMarkedCell(int i) { return marked[i]; }
+}
@@ -0,0 +1,74 @@
+/* ******************************************************
+ * Odometrie - position absolue estimee a l'estime
+ * Mise a jour par les commandes executees par le moteur: move()/moveBack()
+ * avancent de la vitesse du bot au cap courant, stepTurn() change le cap d'un
+ * pas de Heading. Le deplacement d'un move() est precalcule a chaque
+ * changement de cap: un move accepte coute deux additions.
+ * Correction: le moteur refuse un move qui sortirait de l'arene ou
+ * chevaucherait un autre bot. Meme regle ici, avec les contacts radar du
+ * tick de la commande (radar null: murs seuls).
+ * ******************************************************/
+package algorithms;
+
+import characteristics.IRadarResult;
+import java.util.ArrayList;
+
+public final class Odometry {
+    // Arene de SimulatorEngine (mm)
+    public static final double ARENA_WIDTH = 3000;
+    public static final double ARENA_HEIGHT = 2000;
+
+    private final double speed;
+    private final double radius;
+    private double x, y;
+    private int headingSteps;
+    private double stepX, stepY;
+
+    public Odometry(double x, double y, int headingSteps, double speed, double radius) {
+        this.x = x;
+        this.y = y;
+        this.speed = speed;
+        this.radius = radius;
+        turned(headingSteps);
+    }
+
+    // ====== COMMANDES EXECUTEES ======
+
+    // Cap absolu en pas (un stepTurn = +1 a droite, -1 a gauche)
+    public void turned(int newHeadingSteps) {
+        headingSteps = Heading.toSteps(Heading.toRadians(newHeadingSteps));
+        stepX = speed * Heading.cos(headingSteps);
+        stepY = speed * Heading.sin(headingSteps);
+    }
+
+    // direction: +1 pour move(), -1 pour moveBack(). Rend false si le moteur a refuse le deplacement.
+    public boolean moved(int direction, ArrayList<IRadarResult> radar) {
+        double nx = x + direction * stepX;
+        double ny = y + direction * stepY;
+        if (nx < radius || nx > ARENA_WIDTH - radius || ny < radius || ny > ARENA_HEIGHT - radius) return false;
+        if (radar != null && collides(nx, ny, radar)) return false;
+        x = nx;
+        y = ny;
+        return true;
+    }
+
+    private boolean collides(double nx, double ny, ArrayList<IRadarResult> radar) {
+        for (int i = 0; i < radar.size(); i++) {
+            IRadarResult r = radar.get(i);
+            if (r.getObjectType() == IRadarResult.Types.BULLET) continue;
+            double reach = radius + r.getObjectRadius();
+            if (r.getObjectDistance() > reach + speed) continue;  // trop loin pour gener, sans trigo
+            double ox = x + r.getObjectDistance() * Math.cos(r.getObjectDirection());
+            double oy = y + r.getObjectDistance() * Math.sin(r.getObjectDirection());
+            if ((nx - ox) * (nx - ox) + (ny - oy) * (ny - oy) < reach * reach) return true;
+        }
+        return false;
+    }
+
+    // ====== POSE ======
+
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public int getHeadingSteps() { return headingSteps; }
+    public double getRadius() { return radius; }
+}
@@ -0,0 +1,324 @@
+/* ******************************************************
+ * Planificateur incremental - D* Lite sur la grille d'occupation
+ * Graphe: cellules de l'OccupancyGrid, 8-connexite, cout 10 en ligne
+ * droite et 14 en diagonale (heuristique octile, admissible et coherente).
+ * Une cellule est interdite si son centre est a moins d'un rayon de bot du
+ * bord, ou si une cellule occupee est a moins de inflate cellules (rayon du
+ * bot + demi-cellule): le bot est ramene a un point. Pas de diagonale qui
+ * coupe le coin d'une cellule interdite. On peut sortir d'une cellule
+ * interdite (le bot qui vient de decouvrir une epave colle), pas y entrer.
+ * D* Lite (Koenig & Likhachev) cherche du but vers le bot: quand le bot
+ * avance, seul km change; quand une cellule devient interdite, seuls ses
+ * voisins sont remis a jour et la recherche repare le plan localement.
+ * Cout borne par tick: compute(budget) s'arrete apres budget expansions et
+ * reprend au tick suivant; syncObstacles(budget) ne lit que budget
+ * nouvelles cellules de la grille. Tableaux de taille fixe, tas binaire
+ * indexe: aucune allocation apres le constructeur.
+ * Boucle interne sans division ni test de bornes: la grille est entouree
+ * d'un anneau de cellules toujours interdites (indices du planificateur =
+ * grille avec cet anneau), le voisin d est u + offsets[d], l'etat interdit
+ * est precalcule dans blocked[] et colonne/ligne dans colOf[]/rowOf[].
+ * ******************************************************/
+package algorithms;
+
+import java.util.Arrays;
+
+public final class PathPlanner {
+    public static final int STRAIGHT = 10;
+    public static final int DIAGONAL = 14;
+    private static final int INF = Integer.MAX_VALUE / 4;
+    private static final int[] DC = { 1, 1, 0, -1, -1, -1, 0, 1 };
+    private static final int[] DR = { 0, 1, 1, 1, 0, -1, -1, -1 };
+
+    private final OccupancyGrid grid;
+    private final int cols, rows, cellSize;
+    private final int width;  // cols + anneau
+    private final int inflate;
+    private final int[] offsets = new int[8];  // voisin d de u = u + offsets[d]
+
+    private final boolean[] outside;  // anneau autour de la grille
+    private final boolean[] blocked;  // anneau, bord, ou obstacle a moins de inflate cellules
+    private final int[] obstacles;    // cellules occupees a moins de inflate cellules
+    private final int[] colOf, rowOf;
+    private int synced;  // cellules de la grille deja prises en compte
+
+    private final int[] g, rhs;
+    private final long[] keys;      // cle de la cellule dans le tas
+    private final int[] heap;
+    private final int[] heapIndex;  // -1 hors du tas
+    private int heapSize;
+
+    private int start = -1, goal = -1, last = -1;
+    private int km;
+
+    public PathPlanner(OccupancyGrid grid, double botRadius) {
+        this.grid = grid;
+        cols = grid.getCols();
+        rows = grid.getRows();
+        cellSize = grid.getCellSize();
+        width = cols + 2;
+        inflate = (int) Math.ceil((botRadius + cellSize / 2.0) / cellSize);
+        // centre (c + 0.5) * cellSize a moins de botRadius du bord
+        int border = (int) Math.ceil(botRadius / cellSize - 0.5);
+        for (int d = 0; d < 8; d++) offsets[d] = DC[d] + DR[d] * width;
+        int n = width * (rows + 2);
+        outside = new boolean[n];
+        blocked = new boolean[n];
+        obstacles = new int[n];
+        colOf = new int[n];
+        rowOf = new int[n];
+        for (int u = 0; u < n; u++) {
+            int c = u % width - 1, r = u / width - 1;
+            colOf[u] = c;
+            rowOf[u] = r;
+            outside[u] = c < 0 || r < 0 || c >= cols || r >= rows;
+            blocked[u] = c < border || r < border || c >= cols - border || r >= rows - border;
+        }
+        g = new int[n];
+        rhs = new int[n];
+        keys = new long[n];
+        heap = new int[n];
+        heapIndex = new int[n];
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        Arrays.fill(heapIndex, -1);
+    }
+
+    // ====== CELLULES ======
+
+    public int cell(double x, double y) {
+        int c = Math.max(0, Math.min(cols - 1, grid.col(x)));
+        int r = Math.max(0, Math.min(rows - 1, grid.row(y)));
+        return index(c, r);
+    }
+
+    private int index(int c, int r) { return (r + 1) * width + c + 1; }
+
+    public double centerX(int cell) { return (colOf[cell] + 0.5) * cellSize; }
+    public double centerY(int cell) { return (rowOf[cell] + 0.5) * cellSize; }
+
+    public boolean isBlocked(int cell) { return blocked[cell]; }
+
+    // Cellule libre la plus proche (anneaux de Chebyshev croissants), -1 au-dela de maxRings
+    public int nearestFree(int cell, int maxRings) {
+        int c0 = colOf[cell], r0 = rowOf[cell];
+        for (int ring = 0; ring <= maxRings; ring++) {
+            int best = -1, bestDistance = INF;
+            for (int r = r0 - ring; r <= r0 + ring; r++) {
+                for (int c = c0 - ring; c <= c0 + ring; c++) {
+                    if (Math.max(Math.abs(c - c0), Math.abs(r - r0)) != ring) continue;
+                    if (c < 0 || r < 0 || c >= cols || r >= rows || blocked[index(c, r)]) continue;
+                    int d = (c - c0) * (c - c0) + (r - r0) * (r - r0);
+                    if (d < bestDistance) {
+                        best = index(c, r);
+                        bestDistance = d;
+                    }
+                }
+            }
+            if (best >= 0) return best;
+        }
+        return -1;
+    }
+
+    // ====== OBSTACLES ======
+
+    // Lit au plus budget nouvelles cellules de la grille; rend true si tout est lu
+    public boolean syncObstacles(int budget) {
+        int end = Math.min(grid.getOccupiedCount(), synced + budget);
+        while (synced < end) {
+            int cell = grid.getMarkedCell(synced++);
+            int c0 = cell % cols, r0 = cell / cols;
+            for (int r = Math.max(0, r0 - inflate); r <= Math.min(rows - 1, r0 + inflate); r++) {
+                for (int c = Math.max(0, c0 - inflate); c <= Math.min(cols - 1, c0 + inflate); c++) {
+                    int w = index(c, r);
+                    if (obstacles[w]++ == 0 && !blocked[w]) {
+                        blocked[w] = true;
+                        if (goal >= 0) cellChanged(w);
+                    }
+                }
+            }
+        }
+        return synced == grid.getOccupiedCount();
+    }
+
+    // Les couts des aretes qui touchent w ont change
+    private void cellChanged(int w) {
+        updateVertex(w);
+        updateNeighbours(w);
+    }
+
+    // ====== D* LITE ======
+
+    public void setStart(int cell) {
+        if (cell == start) return;
+        if (last >= 0) km += heuristic(last, cell);
+        start = cell;
+        last = cell;
+    }
+
+    // Nouveau but: la recherche repart de zero (remise a zero en O(cellules))
+    public void setGoal(int cell) {
+        if (cell == goal) return;
+        for (int i = 0; i < heapSize; i++) heapIndex[heap[i]] = -1;
+        heapSize = 0;
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        km = 0;
+        last = start;
+        goal = cell;
+        rhs[goal] = 0;
+        heapInsert(goal, key(goal));
+    }
+
+    // Au plus budget expansions; rend true si le plan depuis start est a jour.
+    // Version optimisee de D* Lite: une cellule sur-coherente ne fait que baisser
+    // le rhs de ses predecesseurs, sans recalculer leurs 8 successeurs
+    public boolean compute(int budget) {
+        while (heapSize > 0) {
+            int u = heap[0];
+            long startKey = key(start);
+            if (keys[u] >= startKey && rhs[start] == g[start]) return true;
+            if (budget-- <= 0) return false;
+            long newKey = key(u);
+            if (keys[u] < newKey) {
+                heapUpdate(u, newKey);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                heapRemove(u);
+                for (int d = 0; d < 8; d++) {
+                    int s = u + offsets[d];
+                    if (outside[s] || s == goal) continue;
+                    int c = cost(s, d ^ 4) + g[u];
+                    if (c < rhs[s]) {
+                        rhs[s] = c;
+                        updateHeap(s);
+                    }
+                }
+            } else {
+                int old = g[u];
+                g[u] = INF;
+                updateVertex(u);
+                for (int d = 0; d < 8; d++) {
+                    int s = u + offsets[d];
+                    if (!outside[s] && rhs[s] == cost(s, d ^ 4) + old) updateVertex(s);
+                }
+            }
+        }
+        return rhs[start] == g[start];
+    }
+
+    // Prochaine cellule du plan depuis start, -1 si le but est inaccessible
+    public int nextCell() {
+        if (start < 0 || g[start] >= INF) return -1;
+        int best = -1;
+        long bestCost = INF;
+        for (int d = 0; d < 8; d++) {
+            long cost = (long) cost(start, d) + g[start + offsets[d]];
+            if (cost < bestCost) {
+                best = start + offsets[d];
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    private void updateNeighbours(int u) {
+        for (int d = 0; d < 8; d++) {
+            int v = u + offsets[d];
+            if (!outside[v]) updateVertex(v);
+        }
+    }
+
+    private void updateVertex(int u) {
+        if (u != goal) {
+            int best = INF;
+            for (int d = 0; d < 8; d++) best = Math.min(best, cost(u, d) + g[u + offsets[d]]);
+            rhs[u] = Math.min(best, INF);
+        }
+        updateHeap(u);
+    }
+
+    // u dans le tas si et seulement si g != rhs, avec sa cle a jour
+    private void updateHeap(int u) {
+        boolean inconsistent = g[u] != rhs[u];
+        if (heapIndex[u] >= 0) {
+            if (inconsistent) heapUpdate(u, key(u)); else heapRemove(u);
+        } else if (inconsistent) {
+            heapInsert(u, key(u));
+        }
+    }
+
+    // Cout de u vers son voisin dans la direction d (INF si interdit)
+    private int cost(int u, int d) {
+        if (blocked[u + offsets[d]]) return INF;
+        if ((d & 1) == 0) return STRAIGHT;
+        return (blocked[u + DC[d]] || blocked[u + DR[d] * width]) ? INF : DIAGONAL;
+    }
+
+    private int heuristic(int a, int b) {
+        int dc = Math.abs(colOf[a] - colOf[b]), dr = Math.abs(rowOf[a] - rowOf[b]);
+        return STRAIGHT * Math.max(dc, dr) + (DIAGONAL - STRAIGHT) * Math.min(dc, dr);
+    }
+    // Cle lexicographique [min(g, rhs) + h + km, min(g, rhs)] dans un long
+    private long key(int u) {
+        int m = Math.min(g[u], rhs[u]);
+        int k1 = (m >= INF) ? INF : m + heuristic(start, u) + km;
+        return ((long) k1 << 32) | m;
+    }
+
+    // ====== TAS BINAIRE INDEXE ======
+
+    private void heapInsert(int u, long key) {
+        keys[u] = key;
+        heap[heapSize] = u;
+        heapIndex[u] = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private void heapUpdate(int u, long key) {
+        long old = keys[u];
+        keys[u] = key;
+        if (key < old) siftUp(heapIndex[u]); else siftDown(heapIndex[u]);
+    }
+
+    private void heapRemove(int u) {
+        int i = heapIndex[u];
+        heapIndex[u] = -1;
+        int lastCell = heap[--heapSize];
+        if (i == heapSize) return;
+        heap[i] = lastCell;
+        heapIndex[lastCell] = i;
+        siftUp(i);
+        siftDown(heapIndex[lastCell]);
+    }
+
+    private void siftUp(int i) {
+        int u = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[heap[parent]] <= keys[u]) break;
+            heap[i] = heap[parent];
+            heapIndex[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = u;
+        heapIndex[u] = i;
+    }
+
+    private void siftDown(int i) {
+        int u = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && keys[heap[child + 1]] < keys[heap[child]]) child++;
+            if (keys[heap[child]] >= keys[u]) break;
+            heap[i] = heap[child];
+            heapIndex[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = u;
+        heapIndex[u] = i;
+    }
+
+    public int getGoal() { return goal; }
+}
@@ -6,13 +6,12 @@
  * ******************************************************/
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 
-public class RandomFire extends Brain {
+public class RandomFire extends SnapshotBrain {
   //---PARAMETERS---//
-  private static final double HEADINGPRECISION = 0.001;
+  private static final int HEADINGPRECISION = 1; //en pas de Heading
 
   //---VARIABLES---//
   private boolean turnTask,turnRight,moveTask;
@@ -28,7 +27,7 @@ public class RandomFire extends Brain {
     turnTask=true;
     moveTask=false;
     firstMove=true;
-    endTaskDirection=(Math.random()-0.5)*0.5*Math.PI;
+    endTaskDirection=(random().nextDouble()-0.5)*0.5*Math.PI;
     turnRight=(endTaskDirection>0);
     endTaskDirection+=getHeading();
     if (turnRight) stepTurn(Parameters.Direction.RIGHT);
@@ -36,12 +35,12 @@ public class RandomFire extends Brain {
     sendLogMessage("Turning point. Waza!");
   }
   public void step() {
-    if (Math.random()<0.01) {
-      fire(Math.random()*Math.PI*2);
+    if (random().nextDouble()<0.01) {
+      fire(random().nextDouble()*Math.PI*2);
       return;
     }
     if (turnTask) {
-      if (isHeading(endTaskDirection)) {
+      if (isHeading(endTaskDirection,HEADINGPRECISION)) {
         if (firstMove) {
           firstMove=false;
   	  turnTask=false;
@@ -76,7 +75,7 @@ public class RandomFire extends Brain {
       if (endTaskCounter<0) {
         turnTask=true;
         moveTask=false;
-        endTaskDirection=(Math.random()-0.5)*2*Math.PI;
+        endTaskDirection=(random().nextDouble()-0.5)*2*Math.PI;
         turnRight=(endTaskDirection>0);
         endTaskDirection+=getHeading();
         if (turnRight) stepTurn(Parameters.Direction.RIGHT);
@@ -90,7 +89,4 @@ public class RandomFire extends Brain {
     }
     return;
   }
-  private boolean isHeading(double dir){
-    return Math.abs(Math.sin(getHeading()-dir))<Parameters.teamAMainBotStepTurnAngle;
-  }
 }
@@ -0,0 +1,398 @@
+/* ******************************************************
+ * Cerveau de base - Instantane des capteurs par tick
+ * Le premier appel a detectRadar(), detectFront(), getHeading() ou getHealth()
+ * dans un tick interroge le moteur; les appels suivants du meme tick relisent
+ * l'instantane. Les actions ne s'executent qu'apres step(), donc les capteurs
+ * ne changent pas pendant un tick: la relecture est exacte.
+ * La liste radar est partagee entre les appels du tick: ne pas la modifier.
+ * random(): generateur propre au bot, seme par FileLoader depuis la graine
+ * du match (a utiliser a la place de Math.random() pour rejouer un match).
+ * Cap: headingSteps(), isHeading() et turnTowards() passent par Heading
+ * (cap en pas entiers de stepTurn, tolerance en pas).
+ * Position: odometry() suit la commande retenue a chaque tick (move,
+ * moveBack, stepTurn), depuis la position initiale de Parameters reconnue a
+ * l'activation, sans requete de plus: la collision d'un move se verifie sur
+ * le radar du tick s'il a ete lu (regle exacte du moteur), sinon sur les murs
+ * et, pour move(), sur le capteur frontal s'il a ete lu (un bot ou une epave
+ * devant compte comme un refus: le capteur ne donne pas de distance).
+ * tracker(): contacts radar associes en pistes d'un tick a l'autre
+ * (TargetTracker), depuis la position de l'odometrie. leadDirection() et
+ * fireLead(): tir anticipe sur une piste (Intercept). fireIfClear(): tir
+ * refuse si un ami ou une epave est sur la ligne de tir (LineOfFire, cree au
+ * premier tir garde).
+ * occupancy(): epaves et murs appris des capteurs lus a chaque tick
+ * (OccupancyGrid), sans requete de plus, pour les seuls cerveaux construits
+ * avec super(true). navigateTo(): un pas vers un point le long d'un plan
+ * D* Lite sur cette grille, a cout borne par tick.
+ * log: journal a niveaux (BotLog), messages formates seulement si lus.
+ * tuning(): reglage du cerveau pour ce match (TUNING de la classe, valeurs
+ * de MatchConfig pour cette classe), a lire dans activate().
+ * ******************************************************/
+package algorithms;
+
+import robotsimulator.Brain;
+import robotsimulator.FrontSensorResult;
+import characteristics.BotLog;
+import characteristics.IFrontSensorResult;
+import characteristics.IRadarResult;
+import characteristics.Parameters;
+import characteristics.Tuning;
+import characteristics.ISeededBrain;
+import characteristics.MatchConfig;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+public abstract class SnapshotBrain extends Brain implements ISeededBrain {
+    // Capteurs deja lus ce tick (masque de bits)
+    private static final int RADAR = 1;
+    private static final int FRONT = 2;
+    private static final int HEADING = 4;
+    private static final int HEALTH = 8;
+    private static final int HEADING_STEPS = 16;
+    private static final int TRACKER = 32;
+    private static final int LINE_OF_FIRE = 64;
+
+    // Derniere commande demandee ce tick (la derniere ecrase les autres, comme dans Brain)
+    private static final int NONE = 0;
+    private static final int MOVE = 1;
+    private static final int MOVE_BACK = 2;
+    private static final int TURN_LEFT = 3;
+    private static final int TURN_RIGHT = 4;
+
+    // Navigation (navigateTo): resultat, et cout borne par tick du planificateur
+    protected static final int NAV_PLANNING = 0;  // plan pas encore a jour, rien fait ce tick
+    protected static final int NAV_MOVING = 1;    // un pas (rotation ou move) vers la cellule suivante
+    protected static final int NAV_ARRIVED = 2;
+    protected static final int NAV_NO_PATH = 3;
+    private static final int NAV_EXPANSIONS = 50;
+    private static final int NAV_SYNC_CELLS = 8;
+    private static final int NAV_GOAL_RINGS = 4;  // recherche d'une cellule libre autour d'un but occupe
+    private static final int NAV_TOLERANCE = 1;
+
+    // Positions initiales par slot de MatchConfig
+    private static final double[][][] INITIAL_POSITIONS = {
+        { { Parameters.teamAMainBot1InitX, Parameters.teamAMainBot1InitY },
+          { Parameters.teamAMainBot2InitX, Parameters.teamAMainBot2InitY },
+          { Parameters.teamAMainBot3InitX, Parameters.teamAMainBot3InitY } },
+        { { Parameters.teamASecondaryBot1InitX, Parameters.teamASecondaryBot1InitY },
+          { Parameters.teamASecondaryBot2InitX, Parameters.teamASecondaryBot2InitY } },
+        { { Parameters.teamBMainBot1InitX, Parameters.teamBMainBot1InitY },
+          { Parameters.teamBMainBot2InitX, Parameters.teamBMainBot2InitY },
+          { Parameters.teamBMainBot3InitX, Parameters.teamBMainBot3InitY } },
+        { { Parameters.teamBSecondaryBot1InitX, Parameters.teamBSecondaryBot1InitY },
+          { Parameters.teamBSecondaryBot2InitX, Parameters.teamBSecondaryBot2InitY } }
+    };
+
+    private int snapshot;
+    private ArrayList<IRadarResult> radar;
+    private FrontSensorResult front;
+    private double heading;
+    private int headingSteps;
+    private double health;
+    // Hors FileLoader (bancs d'essai), graine quelconque
+    private SplittableRandom random = new SplittableRandom();
+    private int command;
+    private Odometry odometry;
+    private int tick;
+    private TargetTracker tracker;
+    private LineOfFire lineOfFire;
+    private final OccupancyGrid occupancy;  // null: cerveau sans carte
+    private double frontRange;
+    private PathPlanner planner;
+    private int refusedMoves;  // moves refuses d'affilee par le moteur
+    protected final BotLog log = new BotLog(this);
+
+    public SnapshotBrain() {
+        this(false);
+    }
+
+    // mapping: apprend occupancy() a chaque tick, pour navigateTo()
+    protected SnapshotBrain(boolean mapping) {
+        super();
+        occupancy = mapping ? new OccupancyGrid() : null;
+    }
+
+    // ====== CYCLE DU MOTEUR ======
+
+    protected void activation() {
+        invalidateSnapshot();
+        odometry = initialPose();
+        tick = 0;
+        command = NONE;
+        super.activation();
+        learnObstacles();
+        applyCommand();
+    }
+
+    protected void stepAction() {
+        invalidateSnapshot();
+        tick++;
+        command = NONE;
+        super.stepAction();
+        learnObstacles();
+        applyCommand();
+    }
+
+    // Obstacles fixes vus par les capteurs lus ce tick, depuis la pose d'avant la commande
+    private void learnObstacles() {
+        if (occupancy == null) return;
+        if ((snapshot & RADAR) != 0) occupancy.learnRadar(odometry.getX(), odometry.getY(), radar);
+        if ((snapshot & FRONT) != 0 && front.getObjectType() == IFrontSensorResult.Types.WALL)
+            occupancy.learnWall(odometry.getX(), odometry.getY(), getHeading(), frontRange);
+    }
+
+    // Appele juste apres action(): le radar lu pendant step() decrit l'etat vu par le moteur
+    private void applyCommand() {
+        if (command == NONE || getHealth() <= 0) return;
+        if (command == TURN_LEFT) odometry.turned(odometry.getHeadingSteps() - 1);
+        else if (command == TURN_RIGHT) odometry.turned(odometry.getHeadingSteps() + 1);
+        else refusedMoves = moved((command == MOVE) ? 1 : -1) ? 0 : refusedMoves + 1;
+    }
+
+    // Deplacement retenu par le moteur, d'apres les seuls capteurs lus ce tick
+    private boolean moved(int direction) {
+        if ((snapshot & RADAR) != 0) return odometry.moved(direction, radar);
+        if (direction > 0 && (snapshot & FRONT) != 0 && blocksMove(front.getObjectType())) return false;
+        return odometry.moved(direction, null);
+    }
+
+    private static boolean blocksMove(IFrontSensorResult.Types type) {
+        return type != IFrontSensorResult.Types.NOTHING && type != IFrontSensorResult.Types.WALL
+            && type != IFrontSensorResult.Types.BULLET;
+    }
+
+    private void invalidateSnapshot() {
+        snapshot = 0;
+        radar = null;
+        front = null;
+    }
+
+    // ====== COMMANDES ======
+
+    public void move() {
+        command = MOVE;
+        super.move();
+    }
+
+    public void moveBack() {
+        command = MOVE_BACK;
+        super.moveBack();
+    }
+
+    public void stepTurn(Parameters.Direction dir) {
+        command = (dir == Parameters.Direction.LEFT) ? TURN_LEFT : TURN_RIGHT;
+        super.stepTurn(dir);
+    }
+
+    public void fire(double dir) {
+        command = NONE;
+        super.fire(dir);
+    }
+
+    // ====== ODOMETRIE ======
+
+    protected Odometry odometry() {
+        return odometry;
+    }
+
+    // Pistes radar mises a jour au premier appel du tick (cree au premier usage)
+    protected TargetTracker tracker() {
+        if ((snapshot & TRACKER) == 0) {
+            if (tracker == null) tracker = new TargetTracker();
+            tracker.update(tick, odometry.getX(), odometry.getY(), detectRadar());
+            snapshot |= TRACKER;
+        }
+        return tracker;
+    }
+
+    // Direction de tir qui intercepte la piste a sa vitesse estimee, NaN si aucun tir ne peut toucher
+    protected double leadDirection(int track) {
+        TargetTracker t = tracker();
+        return Intercept.direction(odometry.getX(), odometry.getY(), odometry.getRadius(),
+                                   t.getX(track), t.getY(track), t.getVelocityX(track), t.getVelocityY(track));
+    }
+
+    // Tire en anticipant la piste; rend false (sans tirer) si aucun tir ne peut toucher
+    // ou si un ami ou une epave est sur la trajectoire jusqu'au point d'impact
+    protected boolean fireLead(int track) {
+        TargetTracker t = tracker();
+        double x = odometry.getX(), y = odometry.getY();
+        double time = Intercept.time(x, y, odometry.getRadius(), t.getX(track), t.getY(track), t.getVelocityX(track), t.getVelocityY(track));
+        if (Double.isNaN(time)) return false;
+        double dir = Math.atan2(t.getY(track) + t.getVelocityY(track) * time - y, t.getX(track) + t.getVelocityX(track) * time - x);
+        return fireIfClear(dir, Intercept.muzzle(odometry.getRadius()) + Intercept.BULLET_SPEED * time);
+    }
+
+    // ====== TIR GARDE ======
+
+    // Tire vers dir seulement si aucun ami ni epave n'est sur la trajectoire (portee complete)
+    protected boolean fireIfClear(double dir) {
+        return fireIfClear(dir, Intercept.BULLET_RANGE);
+    }
+
+    protected boolean fireIfClear(double dir, double range) {
+        if ((snapshot & LINE_OF_FIRE) == 0) {
+            if (lineOfFire == null) lineOfFire = new LineOfFire();
+            lineOfFire.load(detectRadar());
+            snapshot |= LINE_OF_FIRE;
+        }
+        if (!lineOfFire.isClear(dir, range)) return false;
+        fire(dir);
+        return true;
+    }
+
+    // Obstacles fixes appris depuis le debut du match (epaves, murs)
+    protected OccupancyGrid occupancy() {
+        if (occupancy == null) throw new IllegalStateException(getClass().getSimpleName()+": pas de carte, construire avec super(true)");
+        return occupancy;
+    }
+
+    // Moves refuses d'affilee (bot vivant ou epave pas encore vue devant)
+    protected int refusedMoves() {
+        return refusedMoves;
+    }
+
+    // ====== REGLAGES ======
+
+    // Valeur du parametre pour ce bot: MatchConfig du match, sinon defaut du parametre
+    protected double tuning(Tuning.Parameter parameter) {
+        return MatchConfig.current().getTuning(getClass().getName(), parameter);
+    }
+
+    protected int tuningInt(Tuning.Parameter parameter) {
+        return (int) Math.round(tuning(parameter));
+    }
+
+    // ====== NAVIGATION ======
+
+    // Un pas vers (x, y) le long du plan D* Lite sur occupancy() (PathPlanner). Un but occupe est
+    // remplace par la cellule libre la plus proche. Les bots vivants ne sont pas dans la grille:
+    // a l'appelant de surveiller refusedMoves(), tenu par le radar du tick ou a defaut le capteur frontal.
+    protected int navigateTo(double x, double y) {
+        if (planner == null) planner = new PathPlanner(occupancy(), odometry.getRadius());
+        planner.syncObstacles(NAV_SYNC_CELLS);
+        int start = planner.cell(odometry.getX(), odometry.getY());
+        int goal = planner.nearestFree(planner.cell(x, y), NAV_GOAL_RINGS);
+        if (goal < 0) return NAV_NO_PATH;
+        if (goal == start) return NAV_ARRIVED;
+        int next;
+        if (planner.isBlocked(start)) {
+            // Epave decouverte au contact: le bot est dans sa marge, il en sort tout droit
+            next = planner.nearestFree(start, NAV_GOAL_RINGS);
+        } else {
+            planner.setStart(start);
+            planner.setGoal(goal);
+            if (!planner.compute(NAV_EXPANSIONS)) return NAV_PLANNING;
+            next = planner.nextCell();
+        }
+        if (next < 0) return NAV_NO_PATH;
+        double dir = Math.atan2(planner.centerY(next) - odometry.getY(), planner.centerX(next) - odometry.getX());
+        if (!isHeading(dir, NAV_TOLERANCE)) {
+            turnTowards(dir);
+        } else {
+            detectFront();  // sans radar lu, seul temoin d'un bot qui refuse le move (refusedMoves)
+            move();
+        }
+        return NAV_MOVING;
+    }
+
+    // Equipe par le cap initial (A vers l'est, B vers l'ouest), role par la sante,
+    // rang par les coequipiers au radar: le candidat qui place le mieux les contacts
+    // sur des positions initiales connues
+    private Odometry initialPose() {
+        boolean teamA = Math.abs(Heading.delta(Heading.toSteps(super.getHeading()), Heading.toSteps(Parameters.EAST))) <= Heading.STEPS / 4;
+        boolean main = super.getHealth() > (teamA ? Parameters.teamASecondaryBotHealth : Parameters.teamBSecondaryBotHealth);
+        int slot = teamA ? (main ? MatchConfig.TEAM_A_MAIN : MatchConfig.TEAM_A_SECONDARY)
+                     : (main ? MatchConfig.TEAM_B_MAIN : MatchConfig.TEAM_B_SECONDARY);
+        double[][] candidates = INITIAL_POSITIONS[slot];
+        ArrayList<IRadarResult> contacts = detectRadar();
+
+        double[] best = candidates[0];
+        double bestError = Double.MAX_VALUE;
+        for (double[] candidate : candidates) {
+            double error = 0;
+            for (IRadarResult r : contacts) {
+                if (r.getObjectType() == IRadarResult.Types.BULLET) continue;
+                double cx = candidate[0] + r.getObjectDistance() * Math.cos(r.getObjectDirection());
+                double cy = candidate[1] + r.getObjectDistance() * Math.sin(r.getObjectDirection());
+                double nearest = Double.MAX_VALUE;
+                for (double[][] positions : INITIAL_POSITIONS)
+                    for (double[] p : positions)
+                        nearest = Math.min(nearest, (cx - p[0]) * (cx - p[0]) + (cy - p[1]) * (cy - p[1]));
+                error += nearest;
+            }
+            if (error < bestError) {
+                bestError = error;
+                best = candidate;
+            }
+        }
+        double radius = teamA ? (main ? Parameters.teamAMainBotRadius : Parameters.teamASecondaryBotRadius)
+                              : (main ? Parameters.teamBMainBotRadius : Parameters.teamBSecondaryBotRadius);
+        frontRange = teamA ? (main ? Parameters.teamAMainBotFrontalDetectionRange : Parameters.teamASecondaryBotFrontalDetectionRange)
+                           : (main ? Parameters.teamBMainBotFrontalDetectionRange : Parameters.teamBSecondaryBotFrontalDetectionRange);
+        return new Odometry(best[0], best[1], Heading.toSteps(super.getHeading()), MatchConfig.current().getSpeed(slot), radius);
+    }
+
+    // ====== ALEATOIRE ======
+
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+    }
+
+    protected SplittableRandom random() {
+        return random;
+    }
+
+    // ====== CAPTEURS ======
+
+    public ArrayList<IRadarResult> detectRadar() {
+        if ((snapshot & RADAR) == 0) {
+            radar = super.detectRadar();
+            snapshot |= RADAR;
+        }
+        return radar;
+    }
+
+    public FrontSensorResult detectFront() {
+        if ((snapshot & FRONT) == 0) {
+            front = super.detectFront();
+            snapshot |= FRONT;
+        }
+        return front;
+    }
+
+    public double getHeading() {
+        if ((snapshot & HEADING) == 0) {
+            heading = super.getHeading();
+            snapshot |= HEADING;
+        }
+        return heading;
+    }
+
+    protected int headingSteps() {
+        if ((snapshot & HEADING_STEPS) == 0) {
+            headingSteps = Heading.toSteps(getHeading());
+            snapshot |= HEADING_STEPS;
+        }
+        return headingSteps;
+    }
+
+    public double getHealth() {
+        if ((snapshot & HEALTH) == 0) {
+            health = super.getHealth();
+            snapshot |= HEALTH;
+        }
+        return health;
+    }
+
+    // ====== CAP ======
+
+    protected boolean isHeading(double dir, int toleranceSteps) {
+        return Math.abs(Heading.delta(headingSteps(), Heading.toSteps(dir))) <= toleranceSteps;
+    }
+
+    // Un stepTurn vers dir, par le plus court chemin
+    protected void turnTowards(double dir) {
+        stepTurn((Heading.delta(headingSteps(), Heading.toSteps(dir)) > 0) ? Parameters.Direction.RIGHT : Parameters.Direction.LEFT);
+    }
+}
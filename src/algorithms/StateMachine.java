@@ -0,0 +1,114 @@
+/* ******************************************************
+ * Machine a etats des cerveaux - tables indexees par enum
+ * Chaque etat (constante d'une enum du cerveau) declare une fois, a la
+ * construction du cerveau, sa ligne de la table des transitions:
+ *   - ses drapeaux, bits choisis par le cerveau (ex. SCANNING: le cerveau
+ *     cherche et tire dans cet etat), testes par has()
+ *   - les etats qu'il peut atteindre: goTo() vers un etat non declare est une
+ *     erreur de programmation, pas de jeu, verifiee par assert (lancer avec
+ *     -ea pendant la mise au point; le test a chaque transition coute plus
+ *     que le tick, voir StateMachineBenchmark)
+ * Table des actions: dans le cerveau, une chaine de is() dans step() qui
+ * appelle directement la methode de chaque etat (un Runnable par etat
+ * rendrait l'appel megamorphe; un switch sur current() passe par la table
+ * de correspondance que javac genere pour les enums, un acces de plus).
+ * L'etat courant, le precedent et la ligne de drapeaux de l'etat courant
+ * sont recopies dans des champs a chaque transition: current(), is() et
+ * has() lisent un champ, sans allocation.
+ * Trace: chaque transition est ecrite au niveau DEBUG du BotLog du cerveau;
+ * niveau inactif (cas par defaut), rien n'est formate et goTo() ne lit
+ * aucun champ de plus (bit TRACED de la ligne de drapeaux).
+ * ******************************************************/
+package algorithms;
+
+import characteristics.BotLog;
+
+public final class StateMachine<S extends Enum<S>> {
+    // Bit de drapeaux reserve: pose sur toutes les lignes quand la trace est active, teste par goTo()
+    // sur la ligne qu'il vient de charger (pas de champ de plus a lire par transition)
+    private static final int TRACED = Integer.MIN_VALUE;
+
+    private final S[] states;
+    private long declared;  // bit i: etat d'ordinal i declare par state()
+    private final int[] flags;
+    private final long[] successors;  // bit t: transition vers l'etat d'ordinal t permise
+    private final BotLog trace;
+    private final boolean tracing;  // niveau du BotLog fixe a sa creation
+
+    // Etat courant et ligne de ses tables, recopiee a chaque transition: goTo(), has() et
+    // current() ne lisent que des champs, sans indexer les tables ni passer par ordinal()
+    private S current, previous;
+    private int currentFlags;
+
+    public StateMachine(Class<S> type, BotLog trace) {
+        states = type.getEnumConstants();
+        if (states.length > Long.SIZE) throw new IllegalArgumentException(type.getSimpleName()+": plus de "+Long.SIZE+" etats");
+        flags = new int[states.length];
+        successors = new long[states.length];
+        this.trace = trace;
+        tracing = trace.isEnabled(BotLog.Level.DEBUG);
+    }
+
+    // ====== DEFINITION ======
+
+    // Drapeaux et successeurs de l'etat; retourne this pour enchainer les etats
+    @SafeVarargs
+    public final StateMachine<S> state(S state, int stateFlags, S... next) {
+        int i = state.ordinal();
+        if ((declared & (1L << i)) != 0) throw new IllegalStateException("etat "+state+" defini deux fois");
+        if ((stateFlags & TRACED) != 0) throw new IllegalArgumentException("etat "+state+": bit 31 des drapeaux reserve");
+        declared |= 1L << i;
+        flags[i] = tracing ? stateFlags | TRACED : stateFlags;
+        for (S s : next) successors[i] |= 1L << s.ordinal();
+        return this;
+    }
+
+    // Etat initial (activate); verifie que tous les etats sont declares
+    public void start(S initial) {
+        for (int i = 0; i < states.length; i++)
+            if ((declared & (1L << i)) == 0) throw new IllegalStateException("etat "+states[i]+" non declare");
+        current = previous = initial;
+        currentFlags = flags[initial.ordinal()];
+    }
+
+    // ====== TRANSITIONS ======
+
+    // Transition vers next, sans effet si c'est deja l'etat courant
+    public void goTo(S next) {
+        if (next == current) return;
+        assert (successors[current.ordinal()] & (1L << next.ordinal())) != 0 : undeclared(next);
+        previous = current;
+        current = next;
+        int row = flags[next.ordinal()];
+        currentFlags = row;
+        if (row < 0) traceTransition();  // TRACED
+    }
+
+    // Message d'erreur et trace hors de goTo(), qui reste assez court pour etre inline a chaque appel du cerveau
+    private String undeclared(S next) {
+        return "transition "+current+" -> "+next+" non declaree";
+    }
+
+    private void traceTransition() {
+        trace.debug("{} -> {}", previous, current);
+    }
+
+    // ====== ETAT ======
+
+    public S current() {
+        return current;
+    }
+
+    // Etat quitte a la derniere transition
+    public S previous() {
+        return previous;
+    }
+
+    public boolean is(S state) {
+        return current == state;
+    }
+
+    public boolean has(int flag) {
+        return (currentFlags & flag) != 0;
+    }
+}
@@ -0,0 +1,179 @@
+/* ******************************************************
+ * Pistage multi-cibles - contacts radar associes d'un tick a l'autre
+ * Chaque contact (direction + distance) est converti en coordonnees absolues
+ * depuis la position du bot (Odometry), puis associe a la piste du meme type
+ * la plus proche dans une porte qui s'elargit avec le temps ecoule depuis la
+ * derniere observation (vitesse maximale des bots lue dans la MatchConfig du
+ * match a la creation du pisteur). Un contact sans piste en ouvre une; une piste non
+ * revue depuis MAX_AGE ticks est retiree.
+ * Historique: HISTORY dernieres positions par piste, dans des tableaux
+ * primitifs circulaires (piste i = cases [i*HISTORY, (i+1)*HISTORY)).
+ * Vitesse estimee = (derniere - plus ancienne position) / ticks ecoules.
+ * Aucune allocation apres le constructeur: pistes retirees par echange avec
+ * la derniere, tableaux de taille fixe.
+ * ******************************************************/
+package algorithms;
+
+import characteristics.IRadarResult;
+import characteristics.MatchConfig;
+import java.util.ArrayList;
+
+public final class TargetTracker {
+    public static final int MAX_TRACKS = 32;
+    public static final int HISTORY = 8;  // puissance de 2
+    public static final int MAX_AGE = 20;  // ticks sans observation avant retrait
+
+    private static final double GATE_MARGIN = 10;  // marge pour l'arrondi du radar
+
+    private final IRadarResult.Types[] types = new IRadarResult.Types[MAX_TRACKS];
+    private final int[] head = new int[MAX_TRACKS];    // case de la derniere position
+    private final int[] length = new int[MAX_TRACKS];  // positions dans l'historique
+    private final int[] lastSeen = new int[MAX_TRACKS];  // == tick: deja associee ce tick
+    private final double[] xs = new double[MAX_TRACKS * HISTORY];
+    private final double[] ys = new double[MAX_TRACKS * HISTORY];
+    private final int[] ticks = new int[MAX_TRACKS * HISTORY];
+    private final double maxSpeed;  // deplacement maximal d'un bot par tick dans ce match
+    private int size;
+    private int tick = -1;
+
+    public TargetTracker() {
+        MatchConfig config = MatchConfig.current();
+        maxSpeed = Math.max(Math.max(config.getSpeed(MatchConfig.TEAM_A_MAIN), config.getSpeed(MatchConfig.TEAM_A_SECONDARY)),
+                            Math.max(config.getSpeed(MatchConfig.TEAM_B_MAIN), config.getSpeed(MatchConfig.TEAM_B_SECONDARY)));
+    }
+
+    // ====== MISE A JOUR ======
+
+    // Une fois par tick, radar du tick et position du bot au moment de la lecture
+    public void update(int now, double selfX, double selfY, ArrayList<IRadarResult> radar) {
+        tick = now;
+        for (int i = 0; i < radar.size(); i++) {
+            IRadarResult r = radar.get(i);
+            if (r.getObjectType() == IRadarResult.Types.BULLET) continue;
+            double x = selfX + r.getObjectDistance() * Math.cos(r.getObjectDirection());
+            double y = selfY + r.getObjectDistance() * Math.sin(r.getObjectDirection());
+            int track = associate(r.getObjectType(), x, y);
+            if (track < 0) track = open(r.getObjectType());
+            if (track >= 0) record(track, x, y);
+        }
+        for (int i = size - 1; i >= 0; i--)
+            if (tick - lastSeen[i] > MAX_AGE) remove(i);
+    }
+
+    // Piste libre du meme type la plus proche de (x, y) dans sa porte, ou -1
+    private int associate(IRadarResult.Types type, double x, double y) {
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (types[i] != type || lastSeen[i] == tick) continue;
+            int k = head[i];
+            double dx = xs[k] - x, dy = ys[k] - y;
+            double d = dx * dx + dy * dy;
+            double gate = maxSpeed * (tick - lastSeen[i]) + GATE_MARGIN;
+            if (d <= gate * gate && d < bestDistance) {
+                best = i;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    // Nouvelle piste; table pleine: remplace la piste la moins recemment vue, jamais une piste
+    // deja associee ce tick (-1, contact ignore, si toutes le sont)
+    private int open(IRadarResult.Types type) {
+        int track = size;
+        if (size == MAX_TRACKS) {
+            track = -1;
+            for (int i = 0; i < size; i++)
+                if (lastSeen[i] != tick && (track < 0 || lastSeen[i] < lastSeen[track])) track = i;
+            if (track < 0) return -1;
+        } else {
+            size++;
+        }
+        types[track] = type;
+        head[track] = track * HISTORY + HISTORY - 1;
+        length[track] = 0;
+        return track;
+    }
+
+    private void record(int track, double x, double y) {
+        int base = track * HISTORY;
+        int k = base + ((head[track] - base + 1) & (HISTORY - 1));
+        xs[k] = x;
+        ys[k] = y;
+        ticks[k] = tick;
+        head[track] = k;
+        if (length[track] < HISTORY) length[track]++;
+        lastSeen[track] = tick;
+    }
+
+    private void remove(int track) {
+        int last = --size;
+        if (track == last) return;
+        types[track] = types[last];
+        length[track] = length[last];
+        lastSeen[track] = lastSeen[last];
+        head[track] = head[last] - last * HISTORY + track * HISTORY;
+        System.arraycopy(xs, last * HISTORY, xs, track * HISTORY, HISTORY);
+        System.arraycopy(ys, last * HISTORY, ys, track * HISTORY, HISTORY);
+        System.arraycopy(ticks, last * HISTORY, ticks, track * HISTORY, HISTORY);
+    }
+
+    // ====== REQUETES ======
+
+    // Piste adverse la plus proche de (x, y), a sa position estimee, ou -1
+    public int closestOpponent(double x, double y) {
+        return closestOpponent(x, y, false);
+    }
+
+    // visibleOnly: seulement les pistes vues ce tick
+    public int closestOpponent(double x, double y, boolean visibleOnly) {
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            if (types[i] != IRadarResult.Types.OpponentMainBot && types[i] != IRadarResult.Types.OpponentSecondaryBot) continue;
+            if (visibleOnly && lastSeen[i] != tick) continue;
+            double dx = getX(i) - x, dy = getY(i) - y;
+            double d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                best = i;
+                bestDistance = d;
+            }
+        }
+        return best;
+    }
+
+    public int size() { return size; }
+    public IRadarResult.Types getType(int track) { return types[track]; }
+    public int getLastSeen(int track) { return lastSeen[track]; }
+    public boolean isVisible(int track) { return lastSeen[track] == tick; }
+
+    // Position estimee au tick courant: derniere observation + vitesse * ticks ecoules
+    public double getX(int track) { return xs[head[track]] + getVelocityX(track) * (tick - lastSeen[track]); }
+    public double getY(int track) { return ys[head[track]] + getVelocityY(track) * (tick - lastSeen[track]); }
+
+    public double getVelocityX(int track) {
+        int oldest = oldest(track);
+        int dt = ticks[head[track]] - ticks[oldest];
+        return (dt == 0) ? 0 : (xs[head[track]] - xs[oldest]) / dt;
+    }
+
+    public double getVelocityY(int track) {
+        int oldest = oldest(track);
+        int dt = ticks[head[track]] - ticks[oldest];
+        return (dt == 0) ? 0 : (ys[head[track]] - ys[oldest]) / dt;
+    }
+
+    private int oldest(int track) {
+        int base = track * HISTORY;
+        return base + ((head[track] - base - length[track] + 1) & (HISTORY - 1));
+    }
+
+    public double directionFrom(int track, double x, double y) {
+        return Math.atan2(getY(track) - y, getX(track) - x);
+    }
+
+    public double distanceFrom(int track, double x, double y) {
+        return Math.hypot(getX(track) - x, getY(track) - y);
+    }
+}
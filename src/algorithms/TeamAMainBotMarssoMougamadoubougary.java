@@ -4,56 +4,67 @@
  * ******************************************************/
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 import characteristics.IRadarResult;
+import characteristics.Tuning;
 import java.util.ArrayList;
 
-public class TeamAMainBotMarssoMougamadoubougary extends Brain {
+public class TeamAMainBotMarssoMougamadoubougary extends SnapshotBrain {
     // États principaux
-    private static final int PATROL = 0;
-    private static final int RUSHING = 1;
-    private static final int ENGAGING = 2;
-    private static final int DODGE_TURN1 = 3;
-    private static final int DODGE_MOVE1 = 4;
-    private static final int DODGE_TURN2 = 5;
-    private static final int DODGE_MOVE2 = 6;
-    private static final int DODGE_TURN3 = 7;
-    private static final int DODGE_MOVE3 = 8;
+    private enum State { PATROL, RUSHING, ENGAGING, NAVIGATING }
+    private static final int SCANNING = 1;  // scan et tir à chaque tick
+
+    private final StateMachine<State> machine = new StateMachine<State>(State.class, log)
+        .state(State.PATROL, SCANNING, State.RUSHING, State.ENGAGING, State.NAVIGATING)
+        .state(State.RUSHING, SCANNING, State.ENGAGING, State.NAVIGATING)
+        .state(State.ENGAGING, SCANNING, State.PATROL, State.RUSHING, State.NAVIGATING)
+        .state(State.NAVIGATING, 0, State.PATROL, State.RUSHING, State.ENGAGING);
 
     // Variables d'état
-    private int currentState;
-    private int previousState;
-    private int moveCounter;
-    private int turnCounter;
     private double dodgeDirection;
     private boolean signalReceived;
+    private double navX, navY;
+    private int navTicks;
+    private int navRefused;  // refusedMoves() au debut du contournement (serie deja en cours)
+
+    // Reglages (valeurs du match lues dans activate, voir SnapshotBrain.tuning)
+    private static final Tuning.Parameter HEADING_TOLERANCE = Tuning.integer("HEADING_TOLERANCE", 3, 0, 6);  // en pas de Heading (0.094 rad)
+    private static final Tuning.Parameter PATROL_SLOW_FACTOR = Tuning.integer("PATROL_SLOW_FACTOR", 3, 1, 6);
+    private static final Tuning.Parameter ENGAGE_DISTANCE = Tuning.real("ENGAGE_DISTANCE", 200, 100, 600);  // distance de tir visee
+    private static final Tuning.Parameter DETOUR_DISTANCE = Tuning.real("DETOUR_DISTANCE", 500, 200, 900);  // but du contournement, au-dela de l'obstacle vu (portee frontale 300)
+    private static final Tuning.Parameter MAX_REFUSED_MOVES = Tuning.integer("MAX_REFUSED_MOVES", 20, 5, 50);
+    private static final Tuning.Parameter FIRE_LATENCY = Tuning.integer("FIRE_LATENCY", 20, 1, 40);
+    public static final Tuning TUNING = new Tuning(HEADING_TOLERANCE, PATROL_SLOW_FACTOR, ENGAGE_DISTANCE,
+                                                   DETOUR_DISTANCE, MAX_REFUSED_MOVES, FIRE_LATENCY);
 
     // Constantes
-    private static final int TURN_STEPS = 30;
-    private static final int DODGE_VERTICAL_STEPS = 60;
-    private static final int DODGE_FORWARD_STEPS = 50;
-    private static final int PATROL_SLOW_FACTOR = 3;
-    private static final int FIRE_LATENCY = 20;
+    private static final double ARENA_MARGIN = 100;
+    private static final int NAV_TIMEOUT = 1000;
+
+    private int headingTolerance, patrolSlowFactor, maxRefusedMoves, fireLatency;
+    private double engageDistance, detourDistance;
 
     private int fireCounter;
     private int stepCounter;
 
     public TeamAMainBotMarssoMougamadoubougary() {
-        super();
+        super(true);  // carte des obstacles pour le contournement (navigateTo)
     }
 
     public void activate() {
-        currentState = PATROL;
-        previousState = PATROL;
+        headingTolerance = tuningInt(HEADING_TOLERANCE);
+        patrolSlowFactor = tuningInt(PATROL_SLOW_FACTOR);
+        engageDistance = tuning(ENGAGE_DISTANCE);
+        detourDistance = tuning(DETOUR_DISTANCE);
+        maxRefusedMoves = tuningInt(MAX_REFUSED_MOVES);
+        fireLatency = tuningInt(FIRE_LATENCY);
+        machine.start(State.PATROL);
         stepCounter = 0;
-        moveCounter = 0;
-        turnCounter = 0;
         fireCounter = 0;
         signalReceived = false;
         dodgeDirection = Parameters.SOUTH;
-        sendLogMessage("Tank A activé - Mode PATROL");
+        log.info("Tank A activé - Mode PATROL");
     }
 
     public void step() {
@@ -61,74 +72,47 @@ public class TeamAMainBotMarssoMougamadoubougary extends Brain {
 
         checkMessages();
 
-        // TOUJOURS scanner et tirer si ennemi visible (dans tous les états sauf esquive)
-        if (currentState != DODGE_TURN1 && currentState != DODGE_MOVE1 &&
-            currentState != DODGE_TURN2 && currentState != DODGE_MOVE2 &&
-            currentState != DODGE_TURN3 && currentState != DODGE_MOVE3) {
+        // TOUJOURS scanner et tirer si ennemi visible (dans tous les états sauf contournement)
+        if (machine.has(SCANNING)) {
             if (scanAndShoot()) {
                 // Si on a trouvé un ennemi et qu'on n'est pas en ENGAGING, y aller
-                if (currentState != ENGAGING) {
-                    currentState = ENGAGING;
-                    sendLogMessage("Ennemi détecté! Engagement");
+                if (!machine.is(State.ENGAGING)) {
+                    machine.goTo(State.ENGAGING);
+                    log.info("Ennemi détecté! Engagement");
                 }
             }
         }
 
-        switch (currentState) {
-            case PATROL:
-                stepPatrol();
-                break;
-            case RUSHING:
-                stepRushing();
-                break;
-            case ENGAGING:
-                stepEngaging();
-                break;
-            case DODGE_TURN1:
-                stepDodgeTurn1();
-                break;
-            case DODGE_MOVE1:
-                stepDodgeMove1();
-                break;
-            case DODGE_TURN2:
-                stepDodgeTurn2();
-                break;
-            case DODGE_MOVE2:
-                stepDodgeMove2();
-                break;
-            case DODGE_TURN3:
-                stepDodgeTurn3();
-                break;
-            case DODGE_MOVE3:
-                stepDodgeMove3();
-                break;
+        if (machine.is(State.PATROL)) {
+            stepPatrol();
+        } else if (machine.is(State.RUSHING)) {
+            stepRushing();
+        } else if (machine.is(State.ENGAGING)) {
+            stepEngaging();
+        } else if (machine.is(State.NAVIGATING)) {
+            stepNavigating();
         }
     }
 
     // Scan et tire immédiatement si ennemi trouvé. Retourne true si ennemi détecté.
     private boolean scanAndShoot() {
-        ArrayList<IRadarResult> radarResults = detectRadar();
-        for (IRadarResult r : radarResults) {
-            if (isEnemy(r.getObjectType())) {
-                // Tirer immédiatement
-                if (fireCounter == 0) {
-                    fire(r.getObjectDirection());
-                    fireCounter = FIRE_LATENCY;
-                }
-                return true;
-            }
+        int enemy = tracker().closestOpponent(odometry().getX(), odometry().getY(), true);
+        if (enemy < 0) return false;
+        // Tirer immédiatement, en anticipant son déplacement (pas de tir perdu si hors d'atteinte)
+        if (fireCounter == 0 && fireLead(enemy)) {
+            fireCounter = fireLatency;
         }
-        return false;
+        return true;
     }
 
     private void checkMessages() {
         ArrayList<String> messages = fetchAllMessages();
-        for (String msg : messages) {
-            if (msg.equals("ENEMY_FOUND") && !signalReceived) {
+        for (int i = 0; i < messages.size(); i++) {
+            if (TeamMessage.opcode(messages.get(i)) == TeamMessage.ENEMY_FOUND && !signalReceived) {
                 signalReceived = true;
-                if (currentState == PATROL) {
-                    currentState = RUSHING;
-                    sendLogMessage("Signal reçu! Rush vers scout");
+                if (machine.is(State.PATROL)) {
+                    machine.goTo(State.RUSHING);
+                    log.info("Signal reçu! Rush vers scout");
                 }
             }
         }
@@ -141,9 +125,9 @@ public class TeamAMainBotMarssoMougamadoubougary extends Brain {
         }
 
         stepCounter++;
-        if (!isHeadingTo(Parameters.EAST)) {
-            turnTo(Parameters.EAST);
-        } else if (stepCounter >= PATROL_SLOW_FACTOR) {
+        if (!isHeading(Parameters.EAST, headingTolerance)) {
+            turnTowards(Parameters.EAST);
+        } else if (stepCounter >= patrolSlowFactor) {
             stepCounter = 0;
             move();
         }
@@ -166,156 +150,85 @@ public class TeamAMainBotMarssoMougamadoubougary extends Brain {
         }
 
         double targetDir = (scoutDirection >= 0) ? scoutDirection : Parameters.EAST;
-        if (!isHeadingTo(targetDir)) {
-            turnTo(targetDir);
+        if (!isHeading(targetDir, headingTolerance)) {
+            turnTowards(targetDir);
         } else {
             move();
         }
     }
 
     private void stepEngaging() {
-        ArrayList<IRadarResult> radarResults = detectRadar();
-        IRadarResult closestEnemy = null;
-        double closestDistance = Double.MAX_VALUE;
+        double x = odometry().getX(), y = odometry().getY();
+        int closestEnemy = tracker().closestOpponent(x, y);
 
-        for (IRadarResult r : radarResults) {
-            if (isEnemy(r.getObjectType())) {
-                if (r.getObjectDistance() < closestDistance) {
-                    closestEnemy = r;
-                    closestDistance = r.getObjectDistance();
-                }
-            }
-        }
-
-        if (closestEnemy == null) {
+        if (closestEnemy < 0) {
             if (signalReceived) {
-                currentState = RUSHING;
-                sendLogMessage("Cible perdue - Retour vers scout");
+                machine.goTo(State.RUSHING);
+                log.info("Cible perdue - Retour vers scout");
             } else {
-                currentState = PATROL;
-                sendLogMessage("Cible perdue - Retour PATROL");
+                machine.goTo(State.PATROL);
+                log.info("Cible perdue - Retour PATROL");
             }
             return;
         }
 
-        double targetDirection = closestEnemy.getObjectDirection();
-        double targetDistance = closestEnemy.getObjectDistance();
+        double targetDirection = tracker().directionFrom(closestEnemy, x, y);
+        double targetDistance = tracker().distanceFrom(closestEnemy, x, y);
 
-        // Tirer
-        if (fireCounter == 0) {
-            fire(targetDirection);
-            fireCounter = FIRE_LATENCY;
+        // Tirer (seulement sur une cible vue ce tick)
+        if (fireCounter == 0 && tracker().isVisible(closestEnemy) && fireLead(closestEnemy)) {
+            fireCounter = fireLatency;
         }
 
         // Se rapprocher si trop loin
-        if (targetDistance > 200) {
+        if (targetDistance > engageDistance) {
             if (isBlocked()) {
                 startDodge();
                 return;
             }
-            if (!isHeadingTo(targetDirection)) {
-                turnTo(targetDirection);
+            if (!isHeading(targetDirection, headingTolerance)) {
+                turnTowards(targetDirection);
             } else {
                 move();
             }
         }
     }
 
-    // ====== ESQUIVE EN U - Plus propre avec états séparés ======
+    // ====== CONTOURNEMENT - plan D* Lite sur les obstacles appris ======
 
+    // But au-dela de l'obstacle dans la direction suivie; contre un mur, de cote (NORTH ou SOUTH)
     private void startDodge() {
-        previousState = currentState;
-        currentState = DODGE_TURN1;
-        turnCounter = TURN_STEPS;
-        dodgeDirection = (Math.random() > 0.5) ? Parameters.NORTH : Parameters.SOUTH;
-        sendLogMessage("Esquive vers " + (dodgeDirection == Parameters.NORTH ? "NORTH" : "SOUTH"));
-    }
-
-    private void stepDodgeTurn1() {
-        turnCounter--;
-        if (isHeadingTo(dodgeDirection) || turnCounter <= 0) {
-            currentState = DODGE_MOVE1;
-            moveCounter = DODGE_VERTICAL_STEPS;
+        machine.goTo(State.NAVIGATING);
+        navTicks = 0;
+        navRefused = refusedMoves();
+        double x = odometry().getX(), y = odometry().getY();
+        if (detectFront().getObjectType() == IFrontSensorResult.Types.WALL) {
+            dodgeDirection = (random().nextDouble() > 0.5) ? Parameters.NORTH : Parameters.SOUTH;
+            navX = x;
+            navY = y + detourDistance * Math.sin(dodgeDirection);
         } else {
-            turnTo(dodgeDirection);
-        }
-    }
-
-    private void stepDodgeMove1() {
-        if (moveCounter <= 0) {
-            currentState = DODGE_TURN2;
-            turnCounter = TURN_STEPS;
-            return;
-        }
-
-        if (isBlocked()) {
-            // Bloqué verticalement, passer à l'avancée
-            currentState = DODGE_TURN2;
-            turnCounter = TURN_STEPS;
-            return;
+            navX = x + detourDistance * Math.cos(getHeading());
+            navY = y + detourDistance * Math.sin(getHeading());
         }
-
-        move();
-        moveCounter--;
+        navX = Math.max(ARENA_MARGIN, Math.min(Odometry.ARENA_WIDTH - ARENA_MARGIN, navX));
+        navY = Math.max(ARENA_MARGIN, Math.min(Odometry.ARENA_HEIGHT - ARENA_MARGIN, navY));
+        log.info("Contournement vers ({}, {})", (long) navX, (long) navY);
     }
 
-    private void stepDodgeTurn2() {
-        turnCounter--;
-        if (isHeadingTo(Parameters.EAST) || turnCounter <= 0) {
-            currentState = DODGE_MOVE2;
-            moveCounter = DODGE_FORWARD_STEPS;
-        } else {
-            turnTo(Parameters.EAST);
-        }
-    }
-
-    private void stepDodgeMove2() {
-        if (moveCounter <= 0) {
-            currentState = DODGE_TURN3;
-            turnCounter = TURN_STEPS;
-            return;
-        }
-
-        if (isBlocked()) {
-            // Toujours bloqué, passer au retour
-            currentState = DODGE_TURN3;
-            turnCounter = TURN_STEPS;
-            return;
-        }
-
-        move();
-        moveCounter--;
-    }
-
-    private void stepDodgeTurn3() {
-        turnCounter--;
-        double inverseDir = (dodgeDirection == Parameters.NORTH) ? Parameters.SOUTH : Parameters.NORTH;
-        if (isHeadingTo(inverseDir) || turnCounter <= 0) {
-            currentState = DODGE_MOVE3;
-            moveCounter = DODGE_VERTICAL_STEPS;
-        } else {
-            turnTo(inverseDir);
-        }
-    }
-
-    private void stepDodgeMove3() {
-        if (moveCounter <= 0) {
-            endDodge();
-            return;
-        }
-
-        if (isBlocked()) {
+    private void stepNavigating() {
+        navTicks++;
+        navRefused = Math.min(navRefused, refusedMoves());
+        int status = navigateTo(navX, navY);
+        // Bot vivant sur le chemin (absent de la grille) ou plan impossible: on reprend
+        if (status == NAV_ARRIVED || status == NAV_NO_PATH || navTicks > NAV_TIMEOUT || refusedMoves() - navRefused > maxRefusedMoves) {
             endDodge();
-            return;
         }
-
-        move();
-        moveCounter--;
     }
 
+    // Retour à l'état quitté au début du contournement
     private void endDodge() {
-        currentState = previousState;
-        sendLogMessage("Fin esquive");
+        machine.goTo(machine.previous());
+        log.info("Fin contournement");
     }
 
     // ====== UTILITAIRES ======
@@ -326,24 +239,4 @@ public class TeamAMainBotMarssoMougamadoubougary extends Brain {
                front.getObjectType() != IFrontSensorResult.Types.TeamMainBot &&
                front.getObjectType() != IFrontSensorResult.Types.TeamSecondaryBot;
     }
-
-    private boolean isHeadingTo(double dir) {
-        double diff = Math.abs(getHeading() - dir);
-        while (diff > Math.PI) diff = Math.abs(diff - 2 * Math.PI);
-        return diff < 0.1;
-    }
-
-    private void turnTo(double dir) {
-        double diff = dir - getHeading();
-        while (diff > Math.PI) diff -= 2 * Math.PI;
-        while (diff < -Math.PI) diff += 2 * Math.PI;
-
-        if (diff > 0) stepTurn(Parameters.Direction.RIGHT);
-        else stepTurn(Parameters.Direction.LEFT);
-    }
-
-    private boolean isEnemy(IRadarResult.Types type) {
-        return type == IRadarResult.Types.OpponentMainBot ||
-               type == IRadarResult.Types.OpponentSecondaryBot;
-    }
 }
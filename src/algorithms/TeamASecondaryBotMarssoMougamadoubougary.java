@@ -4,17 +4,20 @@
  * ******************************************************/
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
 import characteristics.IRadarResult;
+import characteristics.Tuning;
 import java.util.ArrayList;
 
-public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
+public class TeamASecondaryBotMarssoMougamadoubougary extends SnapshotBrain {
     // États
-    private static final int ADVANCING = 0;
-    private static final int EVASIVE_TURN = 1;
-    private static final int EVASIVE_MOVE = 2;
+    private enum State { ADVANCING, EVASIVE_TURN, EVASIVE_MOVE }
+
+    private final StateMachine<State> machine = new StateMachine<State>(State.class, log)
+        .state(State.ADVANCING, 0, State.EVASIVE_TURN)
+        .state(State.EVASIVE_TURN, 0, State.EVASIVE_MOVE)
+        .state(State.EVASIVE_MOVE, 0, State.EVASIVE_TURN);
 
     // Directions possibles
     private static final double[] DIRECTIONS = {
@@ -25,7 +28,6 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
     };
 
     // Variables d'état
-    private int currentState;
     private int moveCounter;
     private int turnCounter;
     private double currentDirection;
@@ -33,11 +35,15 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
     private int broadcastCooldown;
     private double targetDirection;
 
-    // Constantes
-    private static final int MOVE_STEPS = 70;          // Steps pour avancer
-    private static final int TURN_STEPS = 40;          // Steps pour tourner
-    private static final int FIRE_LATENCY = 20;
-    private static final int BROADCAST_COOLDOWN = 100;
+    // Reglages (valeurs du match lues dans activate, voir SnapshotBrain.tuning)
+    private static final Tuning.Parameter MOVE_STEPS = Tuning.integer("MOVE_STEPS", 70, 20, 150);          // Steps pour avancer
+    private static final Tuning.Parameter TURN_STEPS = Tuning.integer("TURN_STEPS", 40, 10, 100);          // Steps pour tourner
+    private static final Tuning.Parameter HEADING_TOLERANCE = Tuning.integer("HEADING_TOLERANCE", 3, 0, 6);  // en pas de Heading (0.094 rad)
+    private static final Tuning.Parameter FIRE_LATENCY = Tuning.integer("FIRE_LATENCY", 20, 1, 40);
+    private static final Tuning.Parameter BROADCAST_COOLDOWN = Tuning.integer("BROADCAST_COOLDOWN", 100, 20, 300);
+    public static final Tuning TUNING = new Tuning(MOVE_STEPS, TURN_STEPS, HEADING_TOLERANCE, FIRE_LATENCY, BROADCAST_COOLDOWN);
+
+    private int moveSteps, turnSteps, headingTolerance, fireLatency, broadcastInterval;
 
     private int fireCounter;
 
@@ -46,14 +52,19 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
     }
 
     public void activate() {
-        currentState = ADVANCING;
+        moveSteps = tuningInt(MOVE_STEPS);
+        turnSteps = tuningInt(TURN_STEPS);
+        headingTolerance = tuningInt(HEADING_TOLERANCE);
+        fireLatency = tuningInt(FIRE_LATENCY);
+        broadcastInterval = tuningInt(BROADCAST_COOLDOWN);
+        machine.start(State.ADVANCING);
         moveCounter = 0;
         turnCounter = 0;
         fireCounter = 0;
         enemyFound = false;
         broadcastCooldown = 0;
         currentDirection = Parameters.EAST;
-        sendLogMessage("Scout A activé - Mode ADVANCING");
+        log.info("Scout A activé - Mode ADVANCING");
     }
 
     public void step() {
@@ -63,42 +74,33 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
         // Scanner et tirer si ennemi visible
         scanAndFire();
 
-        switch (currentState) {
-            case ADVANCING:
-                stepAdvancing();
-                break;
-            case EVASIVE_TURN:
-                stepEvasiveTurn();
-                break;
-            case EVASIVE_MOVE:
-                stepEvasiveMove();
-                break;
+        if (machine.is(State.ADVANCING)) {
+            stepAdvancing();
+        } else if (machine.is(State.EVASIVE_TURN)) {
+            stepEvasiveTurn();
+        } else if (machine.is(State.EVASIVE_MOVE)) {
+            stepEvasiveMove();
         }
     }
 
     private void scanAndFire() {
-        ArrayList<IRadarResult> radarResults = detectRadar();
-        for (IRadarResult r : radarResults) {
-            if (isEnemy(r.getObjectType())) {
-                targetDirection = r.getObjectDirection();
-
-                if (!enemyFound) {
-                    enemyFound = true;
-                    broadcast("ENEMY_FOUND");
-                    sendLogMessage("ENNEMI TROUVÉ! Signal envoyé");
-                }
-
-                if (broadcastCooldown == 0) {
-                    broadcast("ENEMY_FOUND");
-                    broadcastCooldown = BROADCAST_COOLDOWN;
-                }
-
-                if (fireCounter == 0) {
-                    fire(targetDirection);
-                    fireCounter = FIRE_LATENCY;
-                }
-                return;
-            }
+        int enemy = tracker().closestOpponent(odometry().getX(), odometry().getY(), true);
+        if (enemy < 0) return;
+        targetDirection = tracker().directionFrom(enemy, odometry().getX(), odometry().getY());
+
+        if (!enemyFound) {
+            enemyFound = true;
+            broadcast(TeamMessage.encode(TeamMessage.ENEMY_FOUND));
+            log.info("ENNEMI TROUVÉ! Signal envoyé");
+        }
+
+        if (broadcastCooldown == 0) {
+            broadcast(TeamMessage.encode(TeamMessage.ENEMY_FOUND));
+            broadcastCooldown = broadcastInterval;
+        }
+
+        if (fireCounter == 0 && fireLead(enemy)) {
+            fireCounter = fireLatency;
         }
     }
 
@@ -108,8 +110,8 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
         for (IRadarResult r : radarResults) {
             if (isEnemy(r.getObjectType())) {
                 enemyFound = true;
-                broadcast("ENEMY_FOUND");
-                sendLogMessage("Ennemi détecté! Mode EVASIVE");
+                broadcast(TeamMessage.encode(TeamMessage.ENEMY_FOUND));
+                log.info("Ennemi détecté! Mode EVASIVE");
                 startEvasive();
                 return;
             }
@@ -122,8 +124,8 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
         }
 
         // Avancer vers EAST
-        if (!isHeadingTo(Parameters.EAST)) {
-            turnTo(Parameters.EAST);
+        if (!isHeading(Parameters.EAST, headingTolerance)) {
+            turnTowards(Parameters.EAST);
         } else {
             move();
         }
@@ -133,13 +135,13 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
         // Tourner vers la direction choisie
         turnCounter--;
 
-        if (isHeadingTo(currentDirection) || turnCounter <= 0) {
+        if (isHeading(currentDirection, headingTolerance) || turnCounter <= 0) {
             // Fini de tourner -> passer en MOVE
-            currentState = EVASIVE_MOVE;
-            moveCounter = MOVE_STEPS;
-            sendLogMessage("Tourné -> avancer " + dirName(currentDirection));
+            machine.goTo(State.EVASIVE_MOVE);
+            moveCounter = moveSteps;
+            log.info("Tourné -> avancer {}", dirName(currentDirection));
         } else {
-            turnTo(currentDirection);
+            turnTowards(currentDirection);
         }
     }
 
@@ -156,11 +158,11 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
     }
 
     private void startEvasive() {
-        currentState = EVASIVE_TURN;
-        turnCounter = TURN_STEPS;
+        machine.goTo(State.EVASIVE_TURN);
+        turnCounter = turnSteps;
         // Choisir une direction aléatoire
-        currentDirection = DIRECTIONS[(int)(Math.random() * 4)];
-        sendLogMessage("EVASIVE: tourner vers " + dirName(currentDirection));
+        currentDirection = DIRECTIONS[random().nextInt(DIRECTIONS.length)];
+        log.info("EVASIVE: tourner vers {}", dirName(currentDirection));
     }
 
     private String dirName(double dir) {
@@ -178,21 +180,6 @@ public class TeamASecondaryBotMarssoMougamadoubougary extends Brain {
                front.getObjectType() != IFrontSensorResult.Types.TeamSecondaryBot;
     }
 
-    private boolean isHeadingTo(double dir) {
-        double diff = Math.abs(getHeading() - dir);
-        while (diff > Math.PI) diff = Math.abs(diff - 2 * Math.PI);
-        return diff < 0.1;
-    }
-
-    private void turnTo(double dir) {
-        double diff = dir - getHeading();
-        while (diff > Math.PI) diff -= 2 * Math.PI;
-        while (diff < -Math.PI) diff += 2 * Math.PI;
-
-        if (diff > 0) stepTurn(Parameters.Direction.RIGHT);
-        else stepTurn(Parameters.Direction.LEFT);
-    }
-
     private boolean isEnemy(IRadarResult.Types type) {
         return type == IRadarResult.Types.OpponentMainBot ||
                type == IRadarResult.Types.OpponentSecondaryBot;
@@ -1,50 +1,57 @@
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
 import characteristics.IFrontSensorResult;
-import characteristics.IRadarResult;
-import java.util.ArrayList;
+import characteristics.Tuning;
 
-public class TeamBMainBotMarssoMougamadoubougary extends Brain {
-    private static final int ADVANCING = 0;
-    private static final int HOLDING = 1;
-    private static final int DODGING = 2;
+public class TeamBMainBotMarssoMougamadoubougary extends SnapshotBrain {
+    private enum State { ADVANCING, HOLDING, NAVIGATING }
+
+    private final StateMachine<State> machine = new StateMachine<State>(State.class, log)
+        .state(State.ADVANCING, 0, State.HOLDING, State.NAVIGATING)
+        .state(State.HOLDING, 0, State.ADVANCING)
+        .state(State.NAVIGATING, 0, State.ADVANCING);
 
-    private int currentState;
-    private int previousState;
     private int stepCounter;
-    private int dodgeCounter;
-    private int dodgeDirection;
-    private boolean dodgingPhase2;
 
     private double targetDirection;
     private double advanceDir;
 
     private int fireCounter;
 
-    private int dodgeAttempts;
+    private double navX, navY;
+    private int navTicks;
+    private int navRefused;  // refusedMoves() au debut du contournement (serie deja en cours)
+
+    // Reglages (valeurs du match lues dans activate, voir SnapshotBrain.tuning)
+    private static final Tuning.Parameter HEADING_TOLERANCE = Tuning.integer("HEADING_TOLERANCE", 0, 0, 6);  // en pas de Heading: 0 = cap exact
+    private static final Tuning.Parameter ADVANCING_STEPS = Tuning.integer("ADVANCING_STEPS", 100, 30, 300);
+    private static final Tuning.Parameter FIRE_LATENCY = Tuning.integer("FIRE_LATENCY", 1, 1, 40);
+    private static final Tuning.Parameter DETOUR_DISTANCE = Tuning.real("DETOUR_DISTANCE", 500, 200, 900);  // but du contournement, au-dela de l'obstacle vu (portee frontale 300)
+    private static final Tuning.Parameter MAX_REFUSED_MOVES = Tuning.integer("MAX_REFUSED_MOVES", 20, 5, 50);
+    public static final Tuning TUNING = new Tuning(HEADING_TOLERANCE, ADVANCING_STEPS, FIRE_LATENCY, DETOUR_DISTANCE, MAX_REFUSED_MOVES);
+
+    private static final double ARENA_MARGIN = 100;
+    private static final int NAV_TIMEOUT = 1000;
 
-    private static final double HEADINGPRECISION = 0.01;
-    private static final int ADVANCING_STEPS = 100;
-    private static final int DODGE_STEPS = 50;
-    private static final int FIRE_LATENCY = 1;
-    private static final int MAX_DODGE_ATTEMPTS = 2;
+    private int headingTolerance, advancingSteps, fireLatency, maxRefusedMoves;
+    private double detourDistance;
 
     public TeamBMainBotMarssoMougamadoubougary() {
-        super();
+        super(true);  // carte des obstacles pour le contournement (navigateTo)
     }
 
     public void activate() {
-        currentState = ADVANCING;
-        previousState = ADVANCING;
-        stepCounter = ADVANCING_STEPS;
-        dodgeCounter = 0;
-        dodgingPhase2 = false;
+        headingTolerance = tuningInt(HEADING_TOLERANCE);
+        advancingSteps = tuningInt(ADVANCING_STEPS);
+        fireLatency = tuningInt(FIRE_LATENCY);
+        detourDistance = tuning(DETOUR_DISTANCE);
+        maxRefusedMoves = tuningInt(MAX_REFUSED_MOVES);
+        machine.start(State.ADVANCING);
+        stepCounter = advancingSteps;
         fireCounter = 0;
-        dodgeAttempts = 0;
         advanceDir = Parameters.WEST;
-        sendLogMessage("Défenseur B activé - Mode ADVANCING");
+        log.info("Défenseur B activé - Mode ADVANCING");
     }
 
     public void step() {
@@ -52,156 +59,110 @@ public class TeamBMainBotMarssoMougamadoubougary extends Brain {
 
         scanAndShoot();
 
-        switch (currentState) {
-            case ADVANCING:
-                stepAdvancing();
-                break;
-            case HOLDING:
-                stepHolding();
-                break;
-            case DODGING:
-                stepDodging();
-                break;
+        if (machine.is(State.ADVANCING)) {
+            stepAdvancing();
+        } else if (machine.is(State.HOLDING)) {
+            stepHolding();
+        } else if (machine.is(State.NAVIGATING)) {
+            stepNavigating();
         }
     }
 
     private void scanAndShoot() {
-        ArrayList<IRadarResult> radarResults = detectRadar();
-        for (IRadarResult r : radarResults) {
-            if (isEnemy(r.getObjectType())) {
-                targetDirection = r.getObjectDirection();
-                if (fireCounter == 0) {
-                    fire(targetDirection);
-                    fireCounter = FIRE_LATENCY;
-                }
-                if (currentState == ADVANCING) {
-                    currentState = HOLDING;
-                    sendLogMessage("Ennemi détecté - HOLDING");
-                }
-                return;
-            }
+        int enemy = tracker().closestOpponent(odometry().getX(), odometry().getY(), true);
+        if (enemy < 0) return;
+        targetDirection = tracker().directionFrom(enemy, odometry().getX(), odometry().getY());
+        if (fireCounter == 0 && fireLead(enemy)) {
+            fireCounter = fireLatency;
+        }
+        if (machine.is(State.ADVANCING)) {
+            machine.goTo(State.HOLDING);
+            log.info("Ennemi détecté - HOLDING");
         }
     }
 
     private void stepAdvancing() {
         if (stepCounter <= 0) {
             advanceDir = (advanceDir == Parameters.WEST) ? Parameters.EAST : Parameters.WEST;
-            stepCounter = ADVANCING_STEPS;
+            stepCounter = advancingSteps;
+        }
+
+        if (!isHeading(advanceDir, headingTolerance)) {
+            turnTowards(advanceDir);
+            return;
         }
 
+        // Capteur frontal lu seulement face a advanceDir: pendant le demi-tour il voit encore le mur
         IFrontSensorResult front = detectFront();
+        if (front.getObjectType() == IFrontSensorResult.Types.WALL) {
+            turnBack("Mur");
+            return;
+        }
         if (front.getObjectType() != IFrontSensorResult.Types.NOTHING &&
             front.getObjectType() != IFrontSensorResult.Types.TeamMainBot &&
             front.getObjectType() != IFrontSensorResult.Types.TeamSecondaryBot) {
-
-            dodgeAttempts++;
-            if (dodgeAttempts > MAX_DODGE_ATTEMPTS) {
-                advanceDir = (advanceDir == Parameters.WEST) ? Parameters.EAST : Parameters.WEST;
-                stepCounter = ADVANCING_STEPS;
-                dodgeAttempts = 0;
-                sendLogMessage("Obstacle - 2 esquives échouées -> Demi-tour");
-                return;
-            }
-
-            previousState = ADVANCING;
-            startDodging();
+            startNavigating();
             return;
         }
 
-        dodgeAttempts = 0;
-
-        if (!isHeading(advanceDir)) {
-            turnToward(advanceDir);
-        } else {
-            stepCounter--;
-            move();
-        }
+        stepCounter--;
+        move();
     }
 
     private void stepHolding() {
-        ArrayList<IRadarResult> radarResults = detectRadar();
-        IRadarResult closestEnemy = null;
-        double closestDistance = Double.MAX_VALUE;
-
-        for (IRadarResult r : radarResults) {
-            if (isEnemy(r.getObjectType())) {
-                if (r.getObjectDistance() < closestDistance) {
-                    closestEnemy = r;
-                    closestDistance = r.getObjectDistance();
-                }
-            }
-        }
+        int closestEnemy = findClosestEnemy();
 
-        if (closestEnemy == null) {
-            sendLogMessage("Cible éliminée - Retour en ADVANCING");
-            stepCounter = ADVANCING_STEPS;
-            currentState = ADVANCING;
+        if (closestEnemy < 0) {
+            log.info("Cible éliminée - Retour en ADVANCING");
+            stepCounter = advancingSteps;
+            machine.goTo(State.ADVANCING);
             return;
         }
 
-        targetDirection = closestEnemy.getObjectDirection();
+        targetDirection = tracker().directionFrom(closestEnemy, odometry().getX(), odometry().getY());
 
-        if (!isHeading(targetDirection)) {
-            turnToward(targetDirection);
+        if (!isHeading(targetDirection, headingTolerance)) {
+            turnTowards(targetDirection);
         }
 
-        if (fireCounter == 0) {
-            fire(targetDirection);
-            fireCounter = FIRE_LATENCY;
+        // Cible perdue de vue depuis peu: on la suit sans tirer a l'aveugle
+        if (fireCounter == 0 && tracker().isVisible(closestEnemy) && fireLead(closestEnemy)) {
+            fireCounter = fireLatency;
         }
     }
 
-    private void stepDodging() {
-        if (!dodgingPhase2) {
-            if (dodgeCounter > 0) {
-                dodgeCounter--;
-                double dodgeDir = (dodgeDirection == 0) ? Parameters.NORTH : Parameters.SOUTH;
-                if (!isHeading(dodgeDir)) {
-                    turnToward(dodgeDir);
-                } else {
-                    move();
-                }
-            } else {
-                dodgingPhase2 = true;
-                dodgeCounter = DODGE_STEPS;
-            }
-        } else {
-            if (!isHeading(advanceDir)) {
-                turnToward(advanceDir);
-            } else {
-                sendLogMessage("Fin esquive - Retour");
-                currentState = previousState;
-                dodgingPhase2 = false;
-            }
-        }
+    // Piste adverse la plus proche, -1 si aucune
+    private int findClosestEnemy() {
+        return tracker().closestOpponent(odometry().getX(), odometry().getY());
     }
 
-    private void startDodging() {
-        currentState = DODGING;
-        dodgeCounter = DODGE_STEPS;
-        dodgingPhase2 = false;
-        dodgeDirection = (Math.random() > 0.5) ? 0 : 1;
-        sendLogMessage("Obstacle - Esquive vers " + (dodgeDirection == 0 ? "NORTH" : "SOUTH"));
+    // Contournement: plan D* Lite vers un point au-dela de l'obstacle, sur la ligne d'avance
+    private void startNavigating() {
+        machine.goTo(State.NAVIGATING);
+        navTicks = 0;
+        navRefused = refusedMoves();
+        navX = Math.max(ARENA_MARGIN, Math.min(Odometry.ARENA_WIDTH - ARENA_MARGIN, odometry().getX() + detourDistance * Math.cos(advanceDir)));
+        navY = odometry().getY();
+        log.info("Obstacle - Contournement");
     }
 
-    private boolean isEnemy(IRadarResult.Types type) {
-        return type == IRadarResult.Types.OpponentMainBot ||
-               type == IRadarResult.Types.OpponentSecondaryBot;
-    }
-
-    private boolean isHeading(double dir) {
-        return Math.abs(Math.sin(getHeading() - dir)) < HEADINGPRECISION;
+    private void stepNavigating() {
+        navTicks++;
+        navRefused = Math.min(navRefused, refusedMoves());
+        int status = navigateTo(navX, navY);
+        if (status == NAV_ARRIVED) {
+            log.info("Fin contournement - Retour");
+            machine.goTo(State.ADVANCING);
+        } else if (status == NAV_NO_PATH || navTicks > NAV_TIMEOUT || refusedMoves() - navRefused > maxRefusedMoves) {
+            // Pas de passage connu (ou bot vivant sur le chemin): demi-tour
+            turnBack("Pas de passage");
+        }
     }
 
-    private void turnToward(double targetDir) {
-        double diff = targetDir - getHeading();
-        while (diff > Math.PI) diff -= 2 * Math.PI;
-        while (diff < -Math.PI) diff += 2 * Math.PI;
-
-        if (diff > 0) {
-            stepTurn(Parameters.Direction.RIGHT);
-        } else {
-            stepTurn(Parameters.Direction.LEFT);
-        }
+    private void turnBack(String reason) {
+        advanceDir = (advanceDir == Parameters.WEST) ? Parameters.EAST : Parameters.WEST;
+        stepCounter = advancingSteps;
+        machine.goTo(State.ADVANCING);
+        log.info("{} -> Demi-tour", reason);
     }
 }
@@ -4,106 +4,82 @@
  * ******************************************************/
 package algorithms;
 
-import robotsimulator.Brain;
 import characteristics.Parameters;
-import characteristics.IRadarResult;
-import java.util.ArrayList;
+import characteristics.Tuning;
 
-public class TeamBSecondaryBotMarssoMougamadoubougary extends Brain {
+public class TeamBSecondaryBotMarssoMougamadoubougary extends SnapshotBrain {
 
-    private static final int SEARCHING = 0;
-    private static final int ATTACKING = 1;
+    private enum State { SEARCHING, ATTACKING }
 
-    private static final double HEADING_PRECISION = 0.05;
-    private static final int BROADCAST_INTERVAL = 3;  // Broadcast tres frequent
+    private final StateMachine<State> machine = new StateMachine<State>(State.class, log)
+        .state(State.SEARCHING, 0, State.ATTACKING)
+        .state(State.ATTACKING, 0, State.SEARCHING);
 
-    private int state;
+    // Reglages (valeurs du match lues dans activate, voir SnapshotBrain.tuning)
+    private static final Tuning.Parameter HEADING_TOLERANCE = Tuning.integer("HEADING_TOLERANCE", 1, 0, 6);  // en pas de Heading (0.031 rad)
+    private static final Tuning.Parameter BROADCAST_INTERVAL = Tuning.integer("BROADCAST_INTERVAL", 3, 1, 20);  // Broadcast tres frequent
+    public static final Tuning TUNING = new Tuning(HEADING_TOLERANCE, BROADCAST_INTERVAL);
+
+    private int headingTolerance, broadcastInterval;
+
+    private int enemy;  // piste visee ce tick, -1 si aucune
     private int broadcastCooldown;
     private double targetDir;
 
-    // Position tracking
-    private double myX, myY;
-
     public TeamBSecondaryBotMarssoMougamadoubougary() { super(); }
 
     public void activate() {
-        state = SEARCHING;
+        headingTolerance = tuningInt(HEADING_TOLERANCE);
+        broadcastInterval = tuningInt(BROADCAST_INTERVAL);
+        machine.start(State.SEARCHING);
         broadcastCooldown = 0;
         targetDir = Parameters.WEST;
 
-        // Position initiale basee sur le heading initial
-        // Les secondary B commencent a X~2500
-        myX = 2500;
-        myY = 1500;
-
-        sendLogMessage("Kamikaze B pret - WEST");
+        log.info("Kamikaze B pret - WEST");
     }
 
     public void step() {
         if (broadcastCooldown > 0) broadcastCooldown--;
 
         // Toujours scanner pour les ennemis
-        IRadarResult enemy = findClosestEnemy();
-
-        if (enemy != null) {
-            // Ennemi trouve!
-            state = ATTACKING;
-            targetDir = enemy.getObjectDirection();
-
-            // Broadcast position aux Main Bots
-            if (broadcastCooldown <= 0) {
-                broadcast("KAMIKAZE:" + (int)myX + ":" + (int)myY);
-                broadcastCooldown = BROADCAST_INTERVAL;
-            }
-
-            // Foncer vers l'ennemi
-            if (!isHeading(targetDir)) {
-                turnToward(targetDir);
-            } else {
-                move();
-            }
-        } else {
-            // Pas d'ennemi visible - avancer vers WEST
-            state = SEARCHING;
-            if (!isHeading(Parameters.WEST)) {
-                turnToward(Parameters.WEST);
-            } else {
-                move();
-            }
+        // (ennemi trouve, ou perdu de vue depuis peu: position estimee par sa piste)
+        enemy = findClosestEnemy();
+        machine.goTo((enemy >= 0) ? State.ATTACKING : State.SEARCHING);
+        if (machine.is(State.SEARCHING)) {
+            stepSearching();
+        } else if (machine.is(State.ATTACKING)) {
+            stepAttacking();
         }
     }
 
-    private IRadarResult findClosestEnemy() {
-        ArrayList<IRadarResult> results = detectRadar();
-        IRadarResult closest = null;
-        double minDist = Double.MAX_VALUE;
-
-        for (IRadarResult r : results) {
-            if (r.getObjectType() == IRadarResult.Types.OpponentMainBot ||
-                r.getObjectType() == IRadarResult.Types.OpponentSecondaryBot) {
-                if (r.getObjectDistance() < minDist) {
-                    closest = r;
-                    minDist = r.getObjectDistance();
-                }
-            }
-        }
+    private void stepAttacking() {
+        targetDir = tracker().directionFrom(enemy, odometry().getX(), odometry().getY());
 
-        return closest;
-    }
+        // Broadcast position aux Main Bots
+        if (broadcastCooldown <= 0) {
+            broadcast(TeamMessage.encode(TeamMessage.KAMIKAZE, (int)odometry().getX(), (int)odometry().getY()));
+            broadcastCooldown = broadcastInterval;
+        }
 
-    private boolean isHeading(double dir) {
-        double diff = Math.abs(normalizeAngle(getHeading() - dir));
-        return diff < HEADING_PRECISION;
+        // Foncer vers l'ennemi
+        if (!isHeading(targetDir, headingTolerance)) {
+            turnTowards(targetDir);
+        } else {
+            move();
+        }
     }
 
-    private void turnToward(double dir) {
-        double diff = normalizeAngle(dir - getHeading());
-        stepTurn(diff > 0 ? Parameters.Direction.RIGHT : Parameters.Direction.LEFT);
+    // Pas d'ennemi visible - avancer vers WEST
+    private void stepSearching() {
+        if (!isHeading(Parameters.WEST, headingTolerance)) {
+            turnTowards(Parameters.WEST);
+        } else {
+            move();
+        }
     }
 
-    private double normalizeAngle(double a) {
-        while (a > Math.PI) a -= 2 * Math.PI;
-        while (a < -Math.PI) a += 2 * Math.PI;
-        return a;
+    // Piste adverse la plus proche, -1 si aucune
+    private int findClosestEnemy() {
+        return tracker().closestOpponent(odometry().getX(), odometry().getY());
     }
 }
@@ -0,0 +1,95 @@
+/* ******************************************************
+ * Messages d'equipe types au-dessus de broadcast()/fetchAllMessages()
+ * Un message = un opcode + des champs entiers 16 bits, a format fixe par opcode.
+ * Encodage: un char par element (opcode marque dans la zone Unicode privee,
+ * puis un char par champ). Le decodage lit les chars en place: aucune String
+ * ni tableau cree a la reception, pas de split/parse ni d'exception.
+ * Les messages sans champ (ou a champ borne, DIR) sont des constantes:
+ * leur envoi ne cree rien non plus.
+ * ******************************************************/
+package algorithms;
+
+import characteristics.Parameters;
+
+public final class TeamMessage {
+    // Opcodes et champs
+    public static final int ENEMY_FOUND = 1;  // ()
+    public static final int KAMIKAZE = 2;     // (x, y) en mm
+    public static final int DIR = 3;          // (cardinal, voir direction()/cardinalDirection())
+    public static final int SHOOTING = 4;     // ()
+    public static final int FIRE = 5;         // ()
+    private static final int[] FIELD_COUNT = { 0, 0, 2, 1, 0, 0 };
+
+    // Directions transmises par DIR, indexees par le champ
+    private static final double[] CARDINALS = {
+        Parameters.EAST, Parameters.SOUTH, Parameters.WEST, Parameters.NORTH
+    };
+
+    // Marque des messages types: opcode dans l'octet bas, zone privee U+E000..U+E0FF
+    private static final char MARK = '\uE000';
+    private static final String[] NO_FIELD = new String[FIELD_COUNT.length];
+    private static final String[] DIR_MESSAGES = new String[CARDINALS.length];
+    static {
+        for (int op = 1; op < FIELD_COUNT.length; op++)
+            if (FIELD_COUNT[op] == 0) NO_FIELD[op] = String.valueOf((char) (MARK | op));
+        for (int c = 0; c < CARDINALS.length; c++)
+            DIR_MESSAGES[c] = new String(new char[] { (char) (MARK | DIR), (char) c });
+    }
+
+    private TeamMessage() {}
+
+    // ====== ENCODAGE ======
+
+    public static String encode(int opcode) {
+        checkFields(opcode, 0);
+        return NO_FIELD[opcode];
+    }
+
+    public static String encode(int opcode, int a) {
+        checkFields(opcode, 1);
+        if (opcode == DIR && a >= 0 && a < DIR_MESSAGES.length) return DIR_MESSAGES[a];
+        return new String(new char[] { (char) (MARK | opcode), (char) a });
+    }
+
+    public static String encode(int opcode, int a, int b) {
+        checkFields(opcode, 2);
+        return new String(new char[] { (char) (MARK | opcode), (char) a, (char) b });
+    }
+
+    // Message DIR vers une des directions de CARDINALS
+    public static String direction(double dir) {
+        return encode(DIR, cardinal(dir));
+    }
+
+    public static int cardinal(double dir) {
+        for (int c = 0; c < CARDINALS.length; c++)
+            if (CARDINALS[c] == dir) return c;
+        throw new IllegalArgumentException("direction non cardinale: " + dir);
+    }
+
+    private static void checkFields(int opcode, int fields) {
+        if (opcode <= 0 || opcode >= FIELD_COUNT.length || FIELD_COUNT[opcode] != fields)
+            throw new IllegalArgumentException("opcode " + opcode + " avec " + fields + " champ(s)");
+    }
+
+    // ====== DECODAGE ======
+
+    // Opcode du message, ou -1 si ce n'est pas un message type bien forme
+    public static int opcode(String message) {
+        if (message == null || message.isEmpty()) return -1;
+        char head = message.charAt(0);
+        if ((head & 0xFF00) != MARK) return -1;
+        int op = head & 0xFF;
+        if (op <= 0 || op >= FIELD_COUNT.length || message.length() != 1 + FIELD_COUNT[op]) return -1;
+        return op;
+    }
+
+    public static double cardinalDirection(int cardinal) {
+        return CARDINALS[cardinal];
+    }
+
+    // Champ signe 16 bits, index a partir de 0 (a n'appeler qu'apres opcode())
+    public static int field(String message, int index) {
+        return (short) message.charAt(1 + index);
+    }
+}
@@ -0,0 +1,153 @@
+/* ******************************************************
+ * Simovies - Journal des cerveaux: niveaux, formatage paresseux, tampon
+ * circulaire par match.
+ * Un cerveau cree son BotLog a l'instanciation (FileLoader, sur le thread
+ * du match) et ecrit log.info("Cap {} -> {}", a, b): le message n'est
+ * construit que si le niveau est actif. Arguments {} fixes (Object, ou
+ * long sans boxing) ou Supplier pour un message plus couteux.
+ * Destination, fixee a la creation du BotLog:
+ *   - aucun Buffer lie au thread (GUI, benchmarks): niveau INFO, message
+ *     envoye a Brain.sendLogMessage, affiche par le panneau de log
+ *   - Buffer lie (HeadlessMatch): niveau du Buffer, entrees gardees dans
+ *     un tampon circulaire de taille fixe que le lanceur vide par lots;
+ *     un tampon plein ecrase les plus anciennes (comptees dans getDropped)
+ *   - OFF: rien n'est formate ni garde, cas par defaut des matchs sans GUI
+ * ******************************************************/
+package characteristics;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+public final class BotLog {
+  //---PARAMETERS---//
+  public enum Level { DEBUG, INFO, WARN, OFF }
+  public static final int DEFAULT_CAPACITY = 1024;
+  public static final Buffer DISABLED = new Buffer(Level.OFF, 0);
+
+  private static final ThreadLocal<Buffer> current = new ThreadLocal<Buffer>();
+
+  //---BUFFER---//
+  //tampon circulaire d'un match, ecrit et vide sur le thread du match
+  public static final class Buffer {
+    private final Level level;
+    private final int[] ticks;
+    private final Level[] levels;
+    private final String[] sources,messages;
+    private long written,read,dropped; //entrees ecrites, lues, ecrasees depuis le debut
+    private int tick,registered;
+
+    public Buffer(Level level, int capacity) {
+      this.level=level;
+      ticks=new int[capacity];
+      levels=new Level[capacity];
+      sources=new String[capacity];
+      messages=new String[capacity];
+    }
+
+    public void bind() { current.set(this); }
+    public void setTick(int tick) { this.tick=tick; }
+
+    private void add(Level level, String source, String message) {
+      int i = (int) (written++ % ticks.length);
+      ticks[i] = tick;
+      levels[i] = level;
+      sources[i] = source;
+      messages[i] = message;
+      if (written - read > ticks.length) { read++; dropped++; }
+    }
+
+    //une ligne "tick niveau source: message" par entree non lue
+    public int drainTo(Appendable out) throws IOException {
+      int n = 0;
+      while (read < written) {
+        int i = (int) (read++ % ticks.length);
+        out.append(String.valueOf(ticks[i])).append(' ').append(levels[i].name()).append(' ')
+           .append(sources[i]).append(": ").append(messages[i]).append(System.lineSeparator());
+        sources[i] = messages[i] = null;
+        n++;
+      }
+      return n;
+    }
+
+    public Level getLevel() { return level; }
+    public int capacity() { return ticks.length; }
+    public int size() { return (int) (written - read); }
+    //entrees ecrasees avant d'etre lues
+    public long getDropped() { return dropped; }
+  }
+
+  //---VARIABLES---//
+  private final IBrain brain;
+  private final Buffer buffer;
+  private final Level level;
+  private final String source;
+
+  //---CONSTRUCTORS---//
+  public BotLog(IBrain brain) {
+    this.brain=brain;
+    buffer=current.get();
+    level=(buffer == null) ? Level.INFO : buffer.level;
+    source=(level == Level.OFF || buffer == null) ? null : brain.getClass().getSimpleName()+"#"+(buffer.registered++);
+  }
+
+  public static void unbind() { current.remove(); }
+
+  //---LOG---//
+  public boolean isEnabled(Level level) {
+    return level != Level.OFF && level.compareTo(this.level) >= 0;
+  }
+
+  public void log(Level level, String message) {
+    if (isEnabled(level)) emit(level, message);
+  }
+  public void log(Level level, String format, Object a) {
+    if (isEnabled(level)) emit(level, format(format, String.valueOf(a), null));
+  }
+  public void log(Level level, String format, Object a, Object b) {
+    if (isEnabled(level)) emit(level, format(format, String.valueOf(a), String.valueOf(b)));
+  }
+  public void log(Level level, String format, long a, long b) {
+    if (isEnabled(level)) emit(level, format(format, Long.toString(a), Long.toString(b)));
+  }
+  public void log(Level level, Supplier<String> message) {
+    if (isEnabled(level)) emit(level, message.get());
+  }
+
+  public void debug(String message) { log(Level.DEBUG, message); }
+  public void debug(String format, Object a) { log(Level.DEBUG, format, a); }
+  public void debug(String format, Object a, Object b) { log(Level.DEBUG, format, a, b); }
+  public void debug(String format, long a, long b) { log(Level.DEBUG, format, a, b); }
+  public void debug(Supplier<String> message) { log(Level.DEBUG, message); }
+  public void info(String message) { log(Level.INFO, message); }
+  public void info(String format, Object a) { log(Level.INFO, format, a); }
+  public void info(String format, Object a, Object b) { log(Level.INFO, format, a, b); }
+  public void info(String format, long a, long b) { log(Level.INFO, format, a, b); }
+  public void info(Supplier<String> message) { log(Level.INFO, message); }
+  public void warn(String message) { log(Level.WARN, message); }
+  public void warn(String format, Object a) { log(Level.WARN, format, a); }
+  public void warn(String format, Object a, Object b) { log(Level.WARN, format, a, b); }
+  public void warn(String format, long a, long b) { log(Level.WARN, format, a, b); }
+  public void warn(Supplier<String> message) { log(Level.WARN, message); }
+
+  private void emit(Level level, String message) {
+    if (buffer == null) brain.sendLogMessage(message);
+    else buffer.add(level, source, message);
+  }
+
+  //remplace les deux premiers {} par a puis b (b null: un seul argument)
+  private static String format(String format, String a, String b) {
+    int first = format.indexOf("{}");
+    if (first < 0) return format;
+    StringBuilder sb = new StringBuilder(format.length() + 16);
+    sb.append(format, 0, first).append(a);
+    int rest = first + 2;
+    if (b != null) {
+      int second = format.indexOf("{}", rest);
+      if (second >= 0) {
+        sb.append(format, rest, second).append(b);
+        rest = second + 2;
+      }
+    }
+    return sb.append(format, rest, format.length()).toString();
+  }
+}
@@ -0,0 +1,13 @@
+/* ******************************************************
+ * Simovies - Cerveau a generateur aleatoire injecte.
+ * FileLoader donne a chaque cerveau qui l'implemente un SplittableRandom
+ * propre, derive de la graine du match (MatchConfig) dans l'ordre
+ * d'instanciation des bots: meme graine, memes tirages, meme match.
+ * ******************************************************/
+package characteristics;
+
+import java.util.SplittableRandom;
+
+public interface ISeededBrain extends IBrain {
+  public void setRandom(SplittableRandom random); //called once by FileLoader, before activate()
+}
@@ -0,0 +1,163 @@
+/* ******************************************************
+ * Simovies - Configuration immuable d'un match.
+ * Valeurs par defaut: characteristics.Parameters. Un fichier .properties
+ * (cles = noms des champs de Parameters, plus maxTicks) remplace celles
+ * qu'il definit. La configuration est liee au thread qui joue le match
+ * (bind/unbind): FileLoader et les cerveaux la lisent via current(), si
+ * bien que plusieurs matchs de configurations differentes peuvent tourner
+ * en meme temps dans la meme JVM.
+ * Seules les valeurs que le moteur lit via FileLoader (cerveaux, avatars,
+ * vitesses, noms) sont configurables: sante, positions initiales et balles
+ * sont compilees dans robotsimulator.SimulatorEngine.
+ * La graine (cle seed) fixe les tirages aleatoires des cerveaux, voir
+ * ISeededBrain; DEFAULT en tire une nouvelle a chaque lancement.
+ * Reglages des cerveaux (Tuning): cles <classe>.Tuning.<NOM>, par exemple
+ * algorithms.TeamBMainBotMarssoMougamadoubougary.Tuning.ADVANCING_STEPS=120,
+ * lus par getTuning(classe, parametre). Les reglages suivent la classe du
+ * cerveau, de quelque cote qu'il joue (deux versions d'une meme classe,
+ * classe@emplacement, partagent donc les leurs); withBrains() les garde. Les
+ * anciennes cles par slot (<slot>Tuning.<NOM>) sont refusees.
+ * ******************************************************/
+package characteristics;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+public final class MatchConfig {
+  //---PARAMETERS---//
+  public static final int TEAM_A_MAIN = 0, TEAM_A_SECONDARY = 1, TEAM_B_MAIN = 2, TEAM_B_SECONDARY = 3;
+  private static final String[] SLOT_KEYS = { "teamAMainBot", "teamASecondaryBot", "teamBMainBot", "teamBSecondaryBot" };
+  public static final int DEFAULT_MAX_TICKS = 20000; //200s de jeu au rythme du Timer GUI (10ms)
+
+  public static final MatchConfig DEFAULT = new MatchConfig(Parameters.teamAName, Parameters.teamBName,
+    new String[] { Parameters.teamAMainBotBrainClassName, Parameters.teamASecondaryBotBrainClassName,
+                   Parameters.teamBMainBotBrainClassName, Parameters.teamBSecondaryBotBrainClassName },
+    new String[] { Parameters.teamAMainBotAvatar, Parameters.teamASecondaryBotAvatar,
+                   Parameters.teamBMainBotAvatar, Parameters.teamBSecondaryBotAvatar },
+    new double[] { Parameters.teamAMainBotSpeed, Parameters.teamASecondaryBotSpeed,
+                   Parameters.teamBMainBotSpeed, Parameters.teamBSecondaryBotSpeed },
+    DEFAULT_MAX_TICKS, new SplittableRandom().nextLong(), Collections.<String,Double>emptyMap());
+
+  private static final ThreadLocal<MatchConfig> current = new ThreadLocal<MatchConfig>();
+
+  //---VARIABLES---//
+  private final String teamAName,teamBName;
+  private final String[] brains,avatars;
+  private final double[] speeds;
+  private final int maxTicks;
+  private final long seed;
+  private final Map<String,Double> tuning; //cle <classe>.Tuning.<NOM>
+
+  //---CONSTRUCTORS---//
+  private MatchConfig(String teamAName, String teamBName, String[] brains, String[] avatars, double[] speeds, int maxTicks, long seed,
+                      Map<String,Double> tuning) {
+    this.teamAName=teamAName;
+    this.teamBName=teamBName;
+    this.brains=brains;
+    this.avatars=avatars;
+    this.speeds=speeds;
+    this.maxTicks=maxTicks;
+    this.seed=seed;
+    this.tuning=tuning;
+  }
+
+  public static MatchConfig load(String fileName) throws IOException {
+    Properties properties = new Properties();
+    InputStream in = new FileInputStream(fileName);
+    try {
+      properties.load(in);
+    } finally {
+      in.close();
+    }
+    return DEFAULT.with(properties);
+  }
+
+  //copie dont les valeurs definies dans properties remplacent celles-ci
+  public MatchConfig with(Properties properties) {
+    String[] newBrains = brains.clone(), newAvatars = avatars.clone();
+    double[] newSpeeds = speeds.clone();
+    Map<String,Double> newTuning = new TreeMap<String,Double>(tuning);
+    for (String key : properties.stringPropertyNames()) {
+      for (String slotKey : SLOT_KEYS)
+        if (key.startsWith(slotKey+"Tuning."))
+          throw new IllegalArgumentException("reglage par slot "+key+": utiliser <classe du cerveau>.Tuning."+key.substring(slotKey.length()+7));
+      if (key.contains(".Tuning.")) newTuning.put(key, parseDouble(properties, key, 0));
+    }
+    for (int slot = 0; slot < SLOT_KEYS.length; slot++) {
+      newBrains[slot] = properties.getProperty(SLOT_KEYS[slot]+"BrainClassName", brains[slot]).trim();
+      newAvatars[slot] = properties.getProperty(SLOT_KEYS[slot]+"Avatar", avatars[slot]).trim();
+      newSpeeds[slot] = parseDouble(properties, SLOT_KEYS[slot]+"Speed", speeds[slot]);
+    }
+    return new MatchConfig(properties.getProperty("teamAName", teamAName), properties.getProperty("teamBName", teamBName),
+                           newBrains, newAvatars, newSpeeds, (int) parseDouble(properties, "maxTicks", maxTicks),
+                           parseLong(properties, "seed", seed), Collections.unmodifiableMap(newTuning));
+  }
+  public MatchConfig withBrains(String teamAMain, String teamASecondary, String teamBMain, String teamBSecondary) {
+    return new MatchConfig(teamAName, teamBName, new String[] { teamAMain, teamASecondary, teamBMain, teamBSecondary },
+                           avatars, speeds, maxTicks, seed, tuning);
+  }
+  public MatchConfig withMaxTicks(int maxTicks) {
+    return new MatchConfig(teamAName, teamBName, brains, avatars, speeds, maxTicks, seed, tuning);
+  }
+  public MatchConfig withSeed(long seed) {
+    return new MatchConfig(teamAName, teamBName, brains, avatars, speeds, maxTicks, seed, tuning);
+  }
+  //copie ou la classe de cerveau a les reglages values (dans l'ordre de tuning), dans tous ses slots
+  public MatchConfig withTuning(String brainClass, Tuning tuning, double[] values) {
+    Map<String,Double> newTuning = new TreeMap<String,Double>(this.tuning);
+    for (int i = 0; i < tuning.size(); i++) newTuning.put(tuningKey(brainClass, tuning.get(i).getName()), tuning.get(i).clamp(values[i]));
+    return new MatchConfig(teamAName, teamBName, brains, avatars, speeds, maxTicks, seed, Collections.unmodifiableMap(newTuning));
+  }
+  public static String tuningKey(String brainClass, String name) {
+    return brainClass+".Tuning."+name;
+  }
+
+  private static double parseDouble(Properties properties, String key, double defaultValue) {
+    String value = properties.getProperty(key);
+    if (value == null) return defaultValue;
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("valeur invalide pour "+key+": "+value, e);
+    }
+  }
+
+  private static long parseLong(Properties properties, String key, long defaultValue) {
+    String value = properties.getProperty(key);
+    if (value == null) return defaultValue;
+    try {
+      return Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("valeur invalide pour "+key+": "+value, e);
+    }
+  }
+
+  //---THREAD-BINDING---//
+  //configuration du match joue par le thread courant, DEFAULT hors match (GUI)
+  public static MatchConfig current() {
+    MatchConfig config = current.get();
+    return (config == null) ? DEFAULT : config;
+  }
+  public void bind() { current.set(this); }
+  public static void unbind() { current.remove(); }
+
+  //---GET/SETTERS---//
+  public String getTeamAName() { return teamAName; }
+  public String getTeamBName() { return teamBName; }
+  public String getBrainClassName(int slot) { return brains[slot]; }
+  public String getAvatar(int slot) { return avatars[slot]; }
+  public double getSpeed(int slot) { return speeds[slot]; }
+  public int getMaxTicks() { return maxTicks; }
+  public long getSeed() { return seed; }
+  //valeur du parametre pour la classe de cerveau, dans ses bornes; defaut si non configure
+  public double getTuning(String brainClass, Tuning.Parameter parameter) {
+    Double value = tuning.get(tuningKey(brainClass, parameter.getName()));
+    return (value == null) ? parameter.getDefault() : parameter.clamp(value);
+  }
+}
@@ -0,0 +1,87 @@
+/* ******************************************************
+ * Simovies - Vecteur de reglages d'un cerveau.
+ * Un cerveau reglable declare ses constantes de strategie dans un champ
+ * public static final Tuning TUNING: nom, bornes, valeur par defaut, entier
+ * ou reel. Les valeurs d'un match viennent de MatchConfig (cle
+ * <classe>.Tuning.<NOM>, par ex.
+ * algorithms.TeamAMainBotMarssoMougamadoubougary.Tuning.FIRE_LATENCY=12), le
+ * cerveau les lit a l'activation; une cle absente garde le defaut.
+ * Un optimiseur (supportGUI.Optimizer) manipule le vecteur en coordonnees
+ * normalisees [0, 1] par parametre: normalize()/denormalize().
+ * ******************************************************/
+package characteristics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+public final class Tuning {
+  //---PARAMETER---//
+  public static final class Parameter {
+    private final String name;
+    private final double defaultValue,min,max;
+    private final boolean integer;
+
+    private Parameter(String name, double defaultValue, double min, double max, boolean integer) {
+      if (!(min <= defaultValue && defaultValue <= max)) throw new IllegalArgumentException(name+": defaut hors de ["+min+", "+max+"]");
+      this.name=name;
+      this.defaultValue=defaultValue;
+      this.min=min;
+      this.max=max;
+      this.integer=integer;
+    }
+
+    //valeur ramenee dans les bornes, arrondie pour un entier
+    public double clamp(double value) {
+      if (Double.isNaN(value)) return defaultValue;
+      double v = Math.max(min, Math.min(max, value));
+      return integer ? Math.round(v) : v;
+    }
+    public double normalize(double value) { return (max == min) ? 0 : (clamp(value) - min) / (max - min); }
+    public double denormalize(double unit) { return clamp(min + Math.max(0, Math.min(1, unit)) * (max - min)); }
+
+    public String getName() { return name; }
+    public double getDefault() { return defaultValue; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public boolean isInteger() { return integer; }
+    public String format(double value) { return integer ? Long.toString(Math.round(value)) : Double.toString(value); }
+  }
+
+  public static Parameter integer(String name, int defaultValue, int min, int max) {
+    return new Parameter(name, defaultValue, min, max, true);
+  }
+  public static Parameter real(String name, double defaultValue, double min, double max) {
+    return new Parameter(name, defaultValue, min, max, false);
+  }
+
+  //---VARIABLES---//
+  private final Parameter[] parameters;
+
+  //---CONSTRUCTORS---//
+  public Tuning(Parameter... parameters) {
+    this.parameters=parameters.clone();
+  }
+
+  //champ TUNING de la classe de cerveau, Tuning vide si elle n'en a pas
+  public static Tuning forBrain(Class<?> brainClass) {
+    try {
+      Field field = brainClass.getField("TUNING");
+      if (!Modifier.isStatic(field.getModifiers()) || field.getType() != Tuning.class)
+        throw new IllegalArgumentException(brainClass.getName()+".TUNING n'est pas un Tuning statique");
+      return (Tuning) field.get(null);
+    } catch (NoSuchFieldException e) {
+      return new Tuning();
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException(brainClass.getName()+".TUNING inaccessible", e);
+    }
+  }
+
+  //---GET/SETTERS---//
+  public int size() { return parameters.length; }
+  public Parameter get(int i) { return parameters[i]; }
+  public double[] defaults() {
+    double[] values = new double[parameters.length];
+    for (int i = 0; i < values.length; i++) values[i] = parameters[i].defaultValue;
+    return values;
+  }
+}
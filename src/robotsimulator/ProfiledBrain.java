@@ -0,0 +1,50 @@
+/* ******************************************************
+ * Simovies - Cerveau enveloppe pour le profilage (supportGUI.StepProfiler).
+ * Le moteur n'appelle que bind(), activation(), stepAction() et
+ * getLogMessage(), toutes protegees: le decorateur est donc place dans le
+ * paquet robotsimulator pour les deleguer au cerveau enveloppe, qui reste
+ * lie au bot et envoie lui-meme ses commandes.
+ * ******************************************************/
+package robotsimulator;
+
+import supportGUI.StepProfiler;
+
+public class ProfiledBrain extends Brain {
+  //---VARIABLES---//
+  private final Brain brain;
+  private final StepProfiler.Profile profile;
+
+  //---CONSTRUCTORS---//
+  public ProfiledBrain(Brain brain, StepProfiler.Profile profile) {
+    super();
+    this.brain=brain;
+    this.profile=profile;
+  }
+
+  //---GET/SETTERS---//
+  public Brain getBrain() { return brain; }
+
+  //---ENGINE-CALLS---//
+  protected void bind(Bot bot) {
+    super.bind(bot);
+    brain.bind(bot);
+  }
+  protected String getLogMessage() { return brain.getLogMessage(); }
+  protected void activation() {
+    long start = System.nanoTime();
+    brain.activation();
+    profile.recordActivate(System.nanoTime() - start);
+  }
+  protected void stepAction() {
+    long bytes = StepProfiler.allocatedBytes();
+    long start = System.nanoTime();
+    brain.stepAction();
+    long elapsed = System.nanoTime() - start;
+    profile.recordStep(elapsed, (bytes < 0) ? -1 : StepProfiler.allocatedBytes() - bytes);
+  }
+
+  //---BRAIN---//
+  //jamais appeles par le moteur: activation()/stepAction() vont directement au cerveau enveloppe
+  public void activate() { brain.activate(); }
+  public void step() { brain.step(); }
+}
@@ -0,0 +1,129 @@
+/* ******************************************************
+ * Simovies - Lanceur batch sans GUI, pendant de supportGUI.Viewer.
+ * Usage: BatchRunner [-n matchs] [-c config.properties] [-t maxTicks] [-s graine] [-v]
+ *                    [-o fichier.csv] [-r dossier] [-p] [-l niveau] [teamAMain teamASecondary teamBMain teamBSecondary]
+ * Sans -c, la configuration est celle de characteristics.Parameters; -t et les
+ * noms de classes remplacent les valeurs de la configuration.
+ * Le match i joue avec la graine (graine de base + i), ecrite dans le CSV:
+ * -s <graine> -n 1 rejoue un match. -v joue chaque match deux fois et
+ * signale le premier tick ou les empreintes d'etat divergent.
+ * -r enregistre chaque match (MatchRecorder) dans dossier/match-<i>.smr.
+ * -p profile les cerveaux (StepProfiler): duree de step p50/p99/max et
+ * octets alloues par step, par classe, affiches sur stderr a la fin.
+ * -l garde le journal des cerveaux (characteristics.BotLog) a partir du
+ * niveau DEBUG, INFO ou WARN, sur stderr; sans -l il n'est pas formate.
+ * ******************************************************/
+package supportGUI;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import characteristics.BotLog;
+import characteristics.MatchConfig;
+
+public class BatchRunner {
+  public static void main(String[] args) throws IOException {
+    System.setProperty("java.awt.headless", "true");
+
+    int matches = 1;
+    int maxTicks = -1;
+    Long seed = null;
+    boolean verify = false;
+    File records = null;
+    StepProfiler profiler = null;
+    BotLog.Buffer log = null;
+    String output = null;
+    MatchConfig config = MatchConfig.DEFAULT;
+    String[] brains = new String[4];
+    int brainIndex = 0;
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-n")) matches = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-c")) config = MatchConfig.load(args[++i]);
+      else if (args[i].equals("-t")) maxTicks = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-s")) seed = Long.parseLong(args[++i]);
+      else if (args[i].equals("-v")) verify = true;
+      else if (args[i].equals("-r")) records = new File(args[++i]);
+      else if (args[i].equals("-o")) output = args[++i];
+      else if (args[i].equals("-p")) profiler = new StepProfiler();
+      else if (args[i].equals("-l")) log = new BotLog.Buffer(logLevel(args[++i]), BotLog.DEFAULT_CAPACITY);
+      else if (brainIndex < brains.length) brains[brainIndex++] = args[i];
+      else usage("argument inattendu: "+args[i]);
+    }
+    if (brainIndex != 0 && brainIndex != brains.length) usage("il faut les 4 noms de classes, ou aucun");
+
+    if (brainIndex != 0) config = config.withBrains(brains[0], brains[1], brains[2], brains[3]);
+    if (maxTicks >= 0) config = config.withMaxTicks(maxTicks);
+    if (seed != null) config = config.withSeed(seed);
+    BrainRegistry.validate(config);
+    long baseSeed = config.getSeed();
+    System.err.println("graine de base: "+baseSeed);
+    if (records != null) records.mkdirs();
+
+    PrintWriter out = (output == null) ? new PrintWriter(System.out) : new PrintWriter(new FileWriter(output));
+    int winsA = 0, winsB = 0, draws = 0, divergences = 0;
+    long start = System.nanoTime();
+    try {
+      out.println("match,"+MatchResult.CSV_HEADER);
+      for (int i = 0; i < matches; i++) {
+        HeadlessMatch match = new HeadlessMatch(config.withSeed(baseSeed+i));
+        if (records != null) match.setObserver(new MatchRecorder(new File(records, "match-"+i+".smr").getPath()));
+        match.setProfiler(profiler);
+        if (log != null) match.setLog(log, System.err);
+        MatchResult result;
+        if (verify) {
+          long[] first = new long[config.getMaxTicks()], second = new long[config.getMaxTicks()];
+          result = match.run(first);
+          MatchResult replay = match.run(second);
+          int tick = firstDivergence(first, second, result.getTicks(), replay.getTicks());
+          if (tick > 0) {
+            divergences++;
+            System.err.println("match "+i+" (graine "+result.getSeed()+"): divergence au tick "+tick);
+          }
+        } else {
+          result = match.run();
+        }
+        out.println(i+","+result.toCsv());
+        out.flush();
+        switch (result.getWinner()) {
+          case TEAM_A: winsA++; break;
+          case TEAM_B: winsB++; break;
+          default: draws++;
+        }
+      }
+    } finally {
+      if (output == null) out.flush(); else out.close();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.err.printf("%d matchs en %.1fs - A: %d, B: %d, nuls: %d%n", matches, seconds, winsA, winsB, draws);
+    if (profiler != null) System.err.print(profiler.report());
+    if (log != null && log.getDropped() > 0) System.err.println(log.getDropped()+" ligne(s) de journal perdue(s), tampon plein");
+    if (verify) {
+      System.err.println((divergences == 0) ? "rejeu identique pour tous les matchs" : divergences+" match(s) non reproductible(s)");
+      if (divergences > 0) System.exit(2);
+    }
+  }
+
+  //premier tick (a partir de 1) dont les empreintes different, 0 si les deux parties sont identiques
+  private static int firstDivergence(long[] first, long[] second, int firstTicks, int secondTicks) {
+    int common = Math.min(firstTicks, secondTicks);
+    for (int t = 0; t < common; t++) if (first[t] != second[t]) return t+1;
+    return (firstTicks == secondTicks) ? 0 : common+1;
+  }
+
+  private static BotLog.Level logLevel(String name) {
+    try {
+      return BotLog.Level.valueOf(name.toUpperCase());
+    } catch (IllegalArgumentException e) {
+      usage("niveau de journal inconnu: "+name);
+      return null;
+    }
+  }
+
+  private static void usage(String error) {
+    System.err.println(error);
+    System.err.println("Usage: BatchRunner [-n matchs] [-c config.properties] [-t maxTicks] [-s graine] [-v] [-o fichier.csv] [-r dossier] [-p] [-l niveau] [teamAMain teamASecondary teamBMain teamBSecondary]");
+    System.exit(1);
+  }
+}
@@ -0,0 +1,84 @@
+/* ******************************************************
+ * Simovies - Fabriques de cerveaux, une par nom de classe.
+ * Un nom classe@emplacement charge la classe depuis une autre version de
+ * strategie (jar ou dossier, voir StrategyClassLoader): deux versions d'un
+ * meme cerveau ont deux entrees, donc deux fabriques.
+ * Le nom est resolu une seule fois par JVM (Class.forName, puis
+ * MethodHandle du constructeur public sans argument) et garde dans un
+ * cache partage par tous les threads; chaque bot de chaque match recoit
+ * ensuite une instance neuve sans reflexion.
+ * La resolution verifie que la classe existe, implemente IBrain, n'est pas
+ * abstraite et a un constructeur public sans argument: sinon
+ * IllegalArgumentException. Les lanceurs appellent validate() au demarrage,
+ * si bien qu'un nom de classe errone echoue avant le premier match et non
+ * au milieu d'un lot. Une exception du constructeur lui-meme est propagee
+ * telle quelle par create().
+ * ******************************************************/
+package supportGUI;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import characteristics.IBrain;
+import characteristics.MatchConfig;
+
+public final class BrainRegistry {
+  //---VARIABLES---//
+  private static final ConcurrentMap<String,Supplier<IBrain>> factories = new ConcurrentHashMap<String,Supplier<IBrain>>();
+
+  private BrainRegistry() {}
+
+  //---FACTORIES---//
+  //fabrique du cerveau, resolue au premier appel pour ce nom
+  public static Supplier<IBrain> factory(String className) {
+    Supplier<IBrain> factory = factories.get(className);
+    return (factory != null) ? factory : factories.computeIfAbsent(className, BrainRegistry::resolve);
+  }
+
+  public static IBrain create(String className) {
+    return factory(className).get();
+  }
+
+  //les cerveaux des quatre slots
+  public static void validate(MatchConfig config) {
+    for (int slot = MatchConfig.TEAM_A_MAIN; slot <= MatchConfig.TEAM_B_SECONDARY; slot++) factory(config.getBrainClassName(slot));
+  }
+
+  //classe du cerveau, chargee depuis son emplacement s'il y en a un
+  public static Class<?> load(String className) {
+    int at = className.indexOf('@');
+    try {
+      if (at < 0) return Class.forName(className);
+      return Class.forName(className.substring(0, at), true, StrategyClassLoader.forLocation(className.substring(at+1)));
+    } catch (ClassNotFoundException | LinkageError e) {
+      throw new IllegalArgumentException("cerveau introuvable: "+className, e);
+    }
+  }
+
+  private static Supplier<IBrain> resolve(String className) {
+    Class<?> type = load(className);
+    if (!IBrain.class.isAssignableFrom(type)) throw new IllegalArgumentException(className+" n'implemente pas IBrain");
+    if (Modifier.isAbstract(type.getModifiers())) throw new IllegalArgumentException(className+" est abstraite");
+    final MethodHandle constructor;
+    try {
+      constructor = MethodHandles.publicLookup().findConstructor(type, MethodType.methodType(void.class))
+                                 .asType(MethodType.methodType(IBrain.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new IllegalArgumentException(className+" n'a pas de constructeur public sans argument", e);
+    }
+    return () -> {
+      try {
+        return (IBrain) constructor.invokeExact();
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException("instanciation de "+className, e);
+      }
+    };
+  }
+}
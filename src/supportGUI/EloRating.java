@@ -0,0 +1,44 @@
+/* ******************************************************
+ * Simovies - Classement Elo a partir d'un tableau de resultats.
+ * Modele de Bradley-Terry resolu par iterations MM (Hunter 2004):
+ * le resultat ne depend pas de l'ordre des matchs, contrairement a
+ * des mises a jour Elo successives, ce qui compte quand les matchs
+ * finissent dans le desordre sur plusieurs threads.
+ * ******************************************************/
+package supportGUI;
+
+import java.util.Arrays;
+
+public class EloRating {
+  //---PARAMETERS---//
+  private static final int ITERATIONS = 200;
+  private static final double PRIOR_DRAWS = 1; //nul virtuel par paire: evite les classements infinis a 0 ou 100%
+
+  private EloRating(){}
+
+  //points[i][j]: points de i contre j (victoire 1, nul 0.5); games[i][j]: matchs joues entre i et j.
+  //Retourne un Elo par joueur, centre sur 0.
+  public static double[] compute(double[][] points, int[][] games) {
+    int n = points.length;
+    double[] strength = new double[n];
+    Arrays.fill(strength, 1);
+    for (int it = 0; it < ITERATIONS; it++) {
+      double logSum = 0;
+      for (int i = 0; i < n; i++) {
+        double wins = 0, denominator = 0;
+        for (int j = 0; j < n; j++) {
+          if (i == j || games[i][j] == 0) continue;
+          wins += points[i][j] + 0.5*PRIOR_DRAWS;
+          denominator += (games[i][j] + PRIOR_DRAWS) / (strength[i] + strength[j]);
+        }
+        if (denominator > 0) strength[i] = wins / denominator;
+        logSum += Math.log(strength[i]);
+      }
+      double scale = Math.exp(logSum / n); //normalisation: moyenne geometrique 1
+      for (int i = 0; i < n; i++) strength[i] /= scale;
+    }
+    double[] elo = new double[n];
+    for (int i = 0; i < n; i++) elo[i] = 400 * Math.log10(strength[i]);
+    return elo;
+  }
+}
@@ -7,53 +7,72 @@
 package supportGUI;
 
 import characteristics.IBrain;
-import characteristics.Parameters;
+import java.util.SplittableRandom;
+
+import characteristics.ISeededBrain;
+import characteristics.MatchConfig;
 
 public class FileLoader {
+  //---VARIABLES---//
+  private final MatchConfig config;
+  private final SplittableRandom seeds; //un split par cerveau, dans l'ordre d'instanciation de l'engine
+
   //---CONSTRUCTORS---//
-  public FileLoader(){}
-  
+  //configuration du match joue par le thread courant (Parameters hors match), voir MatchConfig.bind()
+  public FileLoader(){ this(MatchConfig.current()); }
+  public FileLoader(MatchConfig config){
+    this.config=config;
+    seeds=new SplittableRandom(config.getSeed());
+  }
+
+  private IBrain brain(int slot) {
+    IBrain brain = BrainRegistry.create(config.getBrainClassName(slot)); //classe resolue une fois par JVM
+    SplittableRandom random = seeds.split(); //tire meme si le cerveau n'en veut pas: les suivants ne dependent que de leur rang
+    if (brain instanceof ISeededBrain) ((ISeededBrain) brain).setRandom(random);
+    return StepProfiler.wrap(brain); //enveloppe seulement dans un match profile, voir HeadlessMatch.setProfiler
+  }
+
   //---GET/SETTERS---//
   public IBrain getTeamAMainBotBrain() {
-    return HardCodedParameters.instantiate(Parameters.teamAMainBotBrainClassName, IBrain.class);
+    return brain(MatchConfig.TEAM_A_MAIN);
   }
   public IBrain getTeamASecondaryBotBrain() {
-    return HardCodedParameters.instantiate(Parameters.teamASecondaryBotBrainClassName, IBrain.class);
+    return brain(MatchConfig.TEAM_A_SECONDARY);
   }
   public IBrain getTeamBMainBotBrain() {
-    return HardCodedParameters.instantiate(Parameters.teamBMainBotBrainClassName, IBrain.class);
+    return brain(MatchConfig.TEAM_B_MAIN);
   }
   public IBrain getTeamBSecondaryBotBrain() {
-    return HardCodedParameters.instantiate(Parameters.teamBSecondaryBotBrainClassName, IBrain.class);
+    return brain(MatchConfig.TEAM_B_SECONDARY);
   }
   public String getTeamAMainBotAvatarFileName() {
-    return Parameters.teamAMainBotAvatar;
+    return config.getAvatar(MatchConfig.TEAM_A_MAIN);
   }
   public String getTeamASecondaryBotAvatarFileName() {
-    return Parameters.teamASecondaryBotAvatar;
+    return config.getAvatar(MatchConfig.TEAM_A_SECONDARY);
   }
   public String getTeamBMainBotAvatarFileName() {
-    return Parameters.teamBMainBotAvatar;
+    return config.getAvatar(MatchConfig.TEAM_B_MAIN);
   }
   public String getTeamBSecondaryBotAvatarFileName() {
-    return Parameters.teamBSecondaryBotAvatar;
+    return config.getAvatar(MatchConfig.TEAM_B_SECONDARY);
   }
   public String getTeamAName() {
-    return Parameters.teamAName;
+    return config.getTeamAName();
   }
   public String getTeamBName() {
-    return Parameters.teamBName;
+    return config.getTeamBName();
   }
   public double getTeamAMainBotSpeed() {
-    return Parameters.teamAMainBotSpeed;
+    return config.getSpeed(MatchConfig.TEAM_A_MAIN);
   }
   public double getTeamASecondaryBotSpeed() {
-    return Parameters.teamASecondaryBotSpeed;
+    return config.getSpeed(MatchConfig.TEAM_A_SECONDARY);
   }
   public double getTeamBMainBotSpeed() {
-    return Parameters.teamBMainBotSpeed;
+    return config.getSpeed(MatchConfig.TEAM_B_MAIN);
   }
   public double getTeamBSecondaryBotSpeed() {
-    return Parameters.teamBSecondaryBotSpeed;
+    return config.getSpeed(MatchConfig.TEAM_B_SECONDARY);
   }
 }
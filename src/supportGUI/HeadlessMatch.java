@@ -0,0 +1,176 @@
+/* ******************************************************
+ * Simovies - Match joue sans GUI, a vitesse maximale.
+ * Reprend la boucle du Timer de SimulatorEngine (step de chaque bot)
+ * plus l'avance des balles, faite en mode GUI par DisplayGame.paintComponent.
+ * Chaque tick produit une empreinte de l'etat (bots et balles): deux matchs
+ * de meme graine doivent avoir les memes empreintes, tick par tick.
+ * Un MatchObserver (setObserver, par ex. MatchRecorder) suit le match tick par tick;
+ * un match qui s'arrete avant sa fin lui est signale par matchAborted.
+ * Un StepProfiler (setProfiler) mesure les cerveaux du match, voir StepProfiler.
+ * Journal des cerveaux (characteristics.BotLog): coupe par defaut, rien n'est
+ * formate; setLog(tampon, sortie) le garde au niveau du tampon et le vide dans
+ * la sortie par lots, des que le tampon est a moitie plein et en fin de match
+ * (MatchExecutor.blocking: sans permis de calcul sous un executeur VIRTUAL).
+ * Un thread interrompu (Future.cancel(true), arret d'un pool) arrete son
+ * match au debut du tick suivant: run() leve une CancellationException.
+ * ******************************************************/
+package supportGUI;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+
+import characteristics.BotLog;
+import characteristics.MatchConfig;
+import robotsimulator.Bot;
+import robotsimulator.Bullet;
+import robotsimulator.SimulatorEngine;
+
+public class HeadlessMatch {
+  //---PARAMETERS---//
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L, FNV_PRIME = 0x100000001b3L;
+
+  //---VARIABLES---//
+  private final MatchConfig config;
+  private MatchObserver observer;
+  private StepProfiler profiler;
+  private BotLog.Buffer log; //null: journal coupe
+  private Appendable logOutput;
+
+  //---CONSTRUCTORS---//
+  public HeadlessMatch() {
+    this(MatchConfig.DEFAULT);
+  }
+  public HeadlessMatch(String teamAMainBrain, String teamASecondaryBrain, String teamBMainBrain, String teamBSecondaryBrain, int maxTicks) {
+    this(MatchConfig.DEFAULT.withBrains(teamAMainBrain, teamASecondaryBrain, teamBMainBrain, teamBSecondaryBrain).withMaxTicks(maxTicks));
+  }
+  public HeadlessMatch(MatchConfig config) {
+    this.config=config;
+  }
+
+  //---GET/SETTERS---//
+  public void setObserver(MatchObserver observer) { this.observer=observer; }
+  public void setProfiler(StepProfiler profiler) { this.profiler=profiler; }
+  public void setLog(BotLog.Buffer log, Appendable logOutput) {
+    this.log=log;
+    this.logOutput=logOutput;
+  }
+
+  //---MATCH---//
+  //la configuration reste liee au thread tout le match: FileLoader et les cerveaux la lisent
+  public MatchResult run() {
+    return run(null);
+  }
+  //tickChecksums[t-1] recoit l'empreinte de l'etat a la fin du tick t (tableau ignore si null)
+  public MatchResult run(long[] tickChecksums) {
+    config.bind();
+    ((log == null) ? BotLog.DISABLED : log).bind();
+    if (profiler != null) profiler.begin();
+    try {
+      return play(tickChecksums);
+    } finally {
+      if (profiler != null) profiler.end();
+      BotLog.unbind();
+      MatchConfig.unbind();
+    }
+  }
+
+  private MatchResult play(long[] tickChecksums) {
+    //panneaux jamais affiches: l'engine ne s'en sert que pour repaint()
+    SimulatorEngine engine = new SimulatorEngine(new DisplayGame(), new LogMessage());
+    int maxTicks = config.getMaxTicks();
+
+    ArrayList<Bot> bots = engine.getBots();
+    int teamA = bots.get(0).getTeam();
+    boolean ended = false;
+    Throwable failure = null;
+    try {
+      if (log != null) log.setTick(0);
+      for (Bot bot : bots) bot.activate();
+      if (observer != null) observer.matchStarted(engine, bots);
+
+      int tick = 0;
+      long checksum = FNV_OFFSET;
+      while (tick < maxTicks) {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("match interrompu au tick "+tick);
+        tick++;
+        if (log != null) log.setTick(tick);
+        for (int i = 0; i < bots.size(); i++) bots.get(i).step();
+        ArrayList<Bullet> bullets = engine.getCurrentBullets(); //avance les balles et applique les degats
+        long state = stateChecksum(bots, bullets);
+        if (tickChecksums != null && tick <= tickChecksums.length) tickChecksums[tick-1] = state;
+        checksum = mix(checksum, state);
+        if (observer != null) observer.tickEnded(tick, bots, bullets);
+        if (log != null && log.size() >= log.capacity() / 2) drainLog();
+        if (teamHealth(bots, teamA, true) <= 0 || teamHealth(bots, teamA, false) <= 0) break;
+      }
+      if (log != null) drainLog();
+      MatchResult result = result(bots, teamA, tick, checksum);
+      if (observer != null) observer.matchEnded(result);
+      ended = true;
+      return result;
+    } catch (RuntimeException | Error e) {
+      failure = e;
+      throw e;
+    } finally {
+      //match inacheve (exception d'un cerveau, annulation, echec de l'observateur): l'observateur libere ses ressources
+      if (!ended && observer != null) observer.matchAborted(failure);
+    }
+  }
+
+  private void drainLog() {
+    try {
+      MatchExecutor.blocking(() -> log.drainTo(logOutput));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  //---UTILS---//
+  //FNV-1a sur les bits des positions, caps et sante des bots et des balles
+  private static long stateChecksum(ArrayList<Bot> bots, ArrayList<Bullet> bullets) {
+    long h = FNV_OFFSET;
+    for (int i = 0; i < bots.size(); i++) {
+      Bot bot = bots.get(i);
+      h = mix(h, Double.doubleToLongBits(bot.getX()));
+      h = mix(h, Double.doubleToLongBits(bot.getY()));
+      h = mix(h, Double.doubleToLongBits(bot.getHeading()));
+      h = mix(h, Double.doubleToLongBits(bot.getHealth()));
+    }
+    h = mix(h, bullets.size());
+    for (int i = 0; i < bullets.size(); i++) {
+      Bullet bullet = bullets.get(i);
+      h = mix(h, Double.doubleToLongBits(bullet.getX()));
+      h = mix(h, Double.doubleToLongBits(bullet.getY()));
+      h = mix(h, Double.doubleToLongBits(bullet.getHeading()));
+    }
+    return h;
+  }
+  private static long mix(long h, long value) {
+    return (h ^ value) * FNV_PRIME;
+  }
+  private static double teamHealth(ArrayList<Bot> bots, int teamA, boolean sideA) {
+    double health = 0;
+    for (int i = 0; i < bots.size(); i++) {
+      Bot bot = bots.get(i);
+      if ((bot.getTeam()==teamA) == sideA && bot.getHealth() > 0) health += bot.getHealth();
+    }
+    return health;
+  }
+  private static int survivors(ArrayList<Bot> bots, int teamA, boolean sideA) {
+    int count = 0;
+    for (Bot bot : bots) if ((bot.getTeam()==teamA) == sideA && bot.getHealth() > 0) count++;
+    return count;
+  }
+  private MatchResult result(ArrayList<Bot> bots, int teamA, int ticks, long checksum) {
+    double healthA = teamHealth(bots, teamA, true);
+    double healthB = teamHealth(bots, teamA, false);
+    MatchResult.Winner winner;
+    if (healthA > healthB) winner = MatchResult.Winner.TEAM_A;
+    else if (healthB > healthA) winner = MatchResult.Winner.TEAM_B;
+    else winner = MatchResult.Winner.DRAW;
+    return new MatchResult(winner, healthA, healthB, survivors(bots, teamA, true), survivors(bots, teamA, false), ticks,
+                           config.getSeed(), checksum);
+  }
+}
@@ -0,0 +1,65 @@
+/* ******************************************************
+ * Simovies - Histogramme de durees a classes logarithmiques (facon HDR).
+ * Valeurs entieres >= 0 (nanosecondes): exactes sous 32, au-dela 16
+ * classes par puissance de 2, soit une erreur relative < 1/16 sur les
+ * quantiles. Taille fixe (976 compteurs), record() en O(1) sans allocation.
+ * Pas synchronise: un histogramme par thread, fusionnes par merge().
+ * ******************************************************/
+package supportGUI;
+
+public final class LatencyHistogram {
+  //---PARAMETERS---//
+  private static final int SUB_BITS = 4;
+  private static final int SUB = 1 << SUB_BITS;
+  private static final int BUCKETS = (63 - SUB_BITS) * SUB + 2 * SUB;
+
+  //---VARIABLES---//
+  private final long[] counts = new long[BUCKETS];
+  private long count,total,max;
+
+  //---RECORD---//
+  public void record(long value) {
+    if (value < 0) value = 0;
+    counts[index(value)]++;
+    count++;
+    total += value;
+    if (value > max) max = value;
+  }
+
+  public void merge(LatencyHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+    count += other.count;
+    total += other.total;
+    if (other.max > max) max = other.max;
+  }
+
+  //classe de value: lineaire sous 2*SUB, puis (decalage, mantisse sur SUB_BITS+1 bits)
+  private static int index(long value) {
+    if (value < 2 * SUB) return (int) value;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return shift * SUB + (int) (value >>> shift);
+  }
+  //plus grande valeur de la classe
+  private static long highest(int index) {
+    if (index < 2 * SUB) return index;
+    int shift = index / SUB - 1;
+    return ((long) (index - shift * SUB + 1) << shift) - 1;
+  }
+
+  //---QUERIES---//
+  //quantile q dans [0, 1]: borne haute de sa classe, au plus max
+  public long percentile(double q) {
+    if (count == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(q * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) return Math.min(highest(i), max);
+    }
+    return max;
+  }
+  public long getCount() { return count; }
+  public long getTotal() { return total; }
+  public long getMax() { return max; }
+  public double getMean() { return (count == 0) ? 0 : (double) total / count; }
+}
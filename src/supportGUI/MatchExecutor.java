@@ -0,0 +1,243 @@
+/* ******************************************************
+ * Simovies - Execution des matchs d'un lanceur sans GUI, avec mesure du
+ * debit (matchs par seconde) et de l'utilisation CPU du processus.
+ * Deux modes:
+ *   PLATFORM: pool fixe de threads, un par match en cours (par defaut)
+ *   VIRTUAL:  un thread virtuel par match soumis, cpuThreads permis de
+ *             calcul. Des milliers de matchs en vol ne coutent qu'un thread
+ *             virtuel chacun et au plus cpuThreads calculent a la fois.
+ * Entrees/sorties d'un match (blocking: ecritures de MatchRecorder, journal
+ * de HeadlessMatch): le permis de calcul est rendu pendant l'appel et repris
+ * apres, un autre match calcule pendant ce temps. Hors mode VIRTUAL, ou hors
+ * d'un match de l'executeur, blocking appelle simplement la tache.
+ * Pas de plafond sur les matchs commences: un match qui revient d'une
+ * entree/sortie reprend un permis avant tout match qui n'a pas commence
+ * (CpuPermits), si bien qu'un nouveau match ne commence que si aucun match
+ * commence n'attend le calcul: au plus cpuThreads matchs commences, plus
+ * ceux en entree/sortie ou qui en reviennent. Le tampon d'un enregistreur
+ * suit cette borne; son fichier est borne a la source, MatchRecorder ne
+ * l'ouvre que le temps d'une ecriture.
+ * Matchs termines (getCompleted, debit): comptes par la tache que cree
+ * newTaskFor, a la fin normale du match; un match annule ou en echec n'est
+ * pas compte, qu'il soit soumis par submit ou par un CompletionService.
+ * Les threads virtuels sont trouves par reflexion
+ * (Executors.newVirtualThreadPerTaskExecutor, Java 21): le simulateur
+ * compile et tourne toujours sur une JVM plus ancienne, ou VIRTUAL retombe
+ * sur PLATFORM avec un message sur stderr.
+ * Utilisation CPU: temps CPU du processus (com.sun.management) rapporte au
+ * temps ecoule fois le nombre de coeurs, depuis la creation; -1 si la JVM
+ * ne le fournit pas.
+ * ******************************************************/
+package supportGUI;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public final class MatchExecutor extends AbstractExecutorService {
+  //---PARAMETERS---//
+  public enum Mode { PLATFORM, VIRTUAL }
+  private static final com.sun.management.OperatingSystemMXBean OS = cpuClock();
+  private static final ThreadLocal<CpuPermits> CPU_PERMIT = new ThreadLocal<CpuPermits>(); //permis tenu par le match du thread
+
+  //---VARIABLES---//
+  private final Mode mode;
+  private final int cpuThreads;
+  private final ExecutorService executor;
+  private final CpuPermits permits; //null en mode PLATFORM: le pool borne deja
+  private final AtomicInteger completed = new AtomicInteger();
+  private final long startNanos,startCpuNanos;
+
+  //---CONSTRUCTORS---//
+  //mode demande; VIRTUAL sans threads virtuels dans cette JVM donne PLATFORM
+  public MatchExecutor(Mode mode, int cpuThreads) {
+    if (cpuThreads < 1) throw new IllegalArgumentException("il faut au moins un thread: "+cpuThreads);
+    ExecutorService virtual = (mode == Mode.VIRTUAL) ? virtualThreadPerTask() : null;
+    if (mode == Mode.VIRTUAL && virtual == null) {
+      System.err.println("threads virtuels indisponibles (Java "+System.getProperty("java.specification.version")+"), pool de threads plateforme");
+      mode = Mode.PLATFORM;
+    }
+    this.mode=mode;
+    this.cpuThreads=cpuThreads;
+    executor = (virtual != null) ? virtual : Executors.newFixedThreadPool(cpuThreads);
+    permits = (virtual != null) ? new CpuPermits(cpuThreads) : null;
+    startNanos = System.nanoTime();
+    startCpuNanos = processCpuNanos();
+  }
+
+  private static ExecutorService virtualThreadPerTask() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null; //avant Java 21 (methode absente), ou Java 19/20 sans --enable-preview (UnsupportedOperationException enveloppee)
+    }
+  }
+
+  //---EXECUTION---//
+  //match sous permis CPU; en mode VIRTUAL, une tache en attente de permis ne bloque qu'un thread virtuel
+  @Override
+  public void execute(Runnable match) {
+    executor.execute(() -> {
+      //sans interruption: une tache annulee ou arretee par shutdownNow prend puis rend aussitot son permis,
+      //sa Future se termine toujours (annulee ou CancellationException de HeadlessMatch)
+      if (permits != null) {
+        permits.acquire(false);
+        CPU_PERMIT.set(permits);
+      }
+      try {
+        match.run();
+      } finally {
+        if (permits != null) {
+          CPU_PERMIT.remove();
+          permits.release();
+        }
+      }
+    });
+  }
+
+  //tache de submit et des CompletionService (qui enveloppent la tache dans la leur avant execute)
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Callable<T> match) {
+    return new Counted<T>(match);
+  }
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable match, T value) {
+    return new Counted<T>(Executors.callable(match, value));
+  }
+
+  //compte le match a son retour normal; set n'est pas appele sur exception, sans effet si la tache est deja annulee
+  private final class Counted<T> extends FutureTask<T> {
+    Counted(Callable<T> match) { super(match); }
+    @Override
+    protected void set(T result) {
+      super.set(result);
+      if (!isCancelled()) completed.incrementAndGet();
+    }
+  }
+
+  //entree/sortie bloquante d'un match: permis de calcul rendu pendant io, repris avant de rendre la main
+  public interface Io { void run() throws IOException; }
+  public static void blocking(Io io) throws IOException {
+    CpuPermits held = CPU_PERMIT.get();
+    if (held == null) {
+      io.run();
+      return;
+    }
+    held.release();
+    try {
+      io.run();
+    } finally {
+      held.acquire(true);
+    }
+  }
+
+  //---LIFECYCLE---//
+  @Override
+  public void shutdown() { executor.shutdown(); }
+  //interrompt les matchs en cours; ceux qui n'ont pas commence ne jouent pas
+  @Override
+  public List<Runnable> shutdownNow() { return executor.shutdownNow(); }
+  @Override
+  public boolean isShutdown() { return executor.isShutdown(); }
+  @Override
+  public boolean isTerminated() { return executor.isTerminated(); }
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+  //apres shutdownNow: attend la fin des taches, compteurs definitifs pour report()
+  public void awaitTermination() throws InterruptedException {
+    awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+  }
+
+  //---PERMITS---//
+  //permis de calcul, un match qui reprend (retour de blocking) servi avant un match qui commence;
+  //attente sans interruption, voir execute
+  private static final class CpuPermits {
+    private final ReentrantLock lock = new ReentrantLock(); //pas de synchronized: un thread virtuel y resterait epingle (Java 21)
+    private final Condition resuming = lock.newCondition(), starting = lock.newCondition();
+    private int free,waitingToResume;
+
+    CpuPermits(int permits) { free=permits; }
+
+    void acquire(boolean resume) {
+      lock.lock();
+      try {
+        if (resume) {
+          waitingToResume++;
+          while (free == 0) resuming.awaitUninterruptibly();
+          waitingToResume--;
+        } else {
+          while (free == 0 || waitingToResume > 0) starting.awaitUninterruptibly();
+        }
+        free--;
+        signalNext();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void release() {
+      lock.lock();
+      try {
+        free++;
+        signalNext();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    //un permis libre va a un match qui reprend s'il y en a un, sinon a un match qui commence
+    private void signalNext() {
+      if (free == 0) return;
+      if (waitingToResume > 0) resuming.signal();
+      else starting.signal();
+    }
+  }
+
+  //---STATISTICS---//
+  public Mode getMode() { return mode; }
+  public int getCpuThreads() { return cpuThreads; }
+  public int getCompleted() { return completed.get(); } //matchs termines normalement, ni annules ni en echec
+
+  public double getElapsedSeconds() { return (System.nanoTime() - startNanos) / 1e9; }
+
+  public double getMatchesPerSecond() { return completed.get() / getElapsedSeconds(); }
+
+  //part des coeurs de la machine occupee par le processus depuis la creation, -1 si non mesurable
+  public double getCpuUtilisation() {
+    long cpu = processCpuNanos();
+    if (cpu < 0 || startCpuNanos < 0) return -1;
+    return (cpu - startCpuNanos) / ((System.nanoTime() - startNanos) * (double) Runtime.getRuntime().availableProcessors());
+  }
+
+  public String report() {
+    double cpu = getCpuUtilisation();
+    return String.format("%d matchs en %.1fs, %.2f matchs/s, CPU %s de %d coeurs (%s, %d threads de calcul)",
+                         getCompleted(), getElapsedSeconds(), getMatchesPerSecond(),
+                         (cpu < 0) ? "?" : String.format("%.0f%%", 100 * cpu), Runtime.getRuntime().availableProcessors(),
+                         mode, cpuThreads);
+  }
+
+  private static long processCpuNanos() {
+    return (OS == null) ? -1 : OS.getProcessCpuTime();
+  }
+  private static com.sun.management.OperatingSystemMXBean cpuClock() {
+    try {
+      java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+      return (bean instanceof com.sun.management.OperatingSystemMXBean) ? (com.sun.management.OperatingSystemMXBean) bean : null;
+    } catch (LinkageError e) {
+      return null; //module jdk.management absent
+    }
+  }
+}
@@ -0,0 +1,22 @@
+/* ******************************************************
+ * Simovies - Observateur d'un match joue par HeadlessMatch.
+ * Appele sur le thread du match, entre deux ticks: l'etat lu est stable.
+ * Les listes passees appartiennent a l'engine: les lire, ne pas les garder.
+ * Chaque match se termine par matchEnded ou, s'il s'arrete avant (exception,
+ * interruption, y compris dans un appel a l'observateur), par matchAborted:
+ * c'est la que l'observateur libere ce qu'il a ouvert.
+ * ******************************************************/
+package supportGUI;
+
+import java.util.ArrayList;
+
+import robotsimulator.Bot;
+import robotsimulator.Bullet;
+import robotsimulator.SimulatorEngine;
+
+public interface MatchObserver {
+  public void matchStarted(SimulatorEngine engine, ArrayList<Bot> bots); //after activation, before tick 1
+  public void tickEnded(int tick, ArrayList<Bot> bots, ArrayList<Bullet> bullets); //after bots and bullets moved
+  public void matchEnded(MatchResult result);
+  public void matchAborted(Throwable cause); //match arrete avant sa fin, cause relancee ensuite
+}
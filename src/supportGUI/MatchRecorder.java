@@ -0,0 +1,231 @@
+/* ******************************************************
+ * Simovies - Enregistrement binaire compact d'un match (MatchObserver).
+ * Ecrit dans un tampon direct de BUFFER octets, vide dans le fichier par
+ * FileChannel.write quand il est plein: pas d'allocation par tick, un appel
+ * systeme par BUFFER octets, et un fichier qui n'a jamais que les octets
+ * ecrits (pas de fenetre mappee a tronquer ni a liberer en fin de match).
+ * Le fichier n'est ouvert que le temps d'un vidage (cree au premier, ajout
+ * en fin ensuite), dans MatchExecutor.blocking: sous un MatchExecutor
+ * VIRTUAL, le permis de calcul est rendu pendant l'ecriture, et seuls les
+ * matchs en train d'ecrire tiennent un fichier ouvert.
+ * Match interrompu (matchAborted: exception d'un cerveau, annulation):
+ * fichier supprime, jamais d'enregistrement sans fin. Un thread
+ * interrompu pendant une ecriture (le canal est alors ferme par la JVM)
+ * arrete le match par une CancellationException, comme HeadlessMatch.
+ * Format (big-endian):
+ *   en-tete: MAGIC, VERSION, intervalle des keyframes, graine, largeur et
+ *            hauteur du monde, noms des equipes, nombre de bots puis
+ *            (equipe, rayon) par bot
+ *   frames:  une par tick, de 0 (apres activation) au dernier tick.
+ *            KEYFRAME + tick, ou DELTA, puis pour chaque bot x, y, cap, sante,
+ *            puis le nombre de balles et x, y, cap de chaque balle.
+ *            Valeurs quantifiees (voir *_SCALE) et ecrites en varint zigzag:
+ *            valeur absolue dans une keyframe, ecart a la frame precedente
+ *            sinon (balle i comparee a la balle i du tick precedent).
+ *   index:   nombre de keyframes puis (tick, position) de chacune,
+ *            dernier tick, vainqueur
+ *   fin:     position de l'index, MAGIC
+ * ******************************************************/
+package supportGUI;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+import characteristics.MatchConfig;
+import robotsimulator.Bot;
+import robotsimulator.Bullet;
+import robotsimulator.SimulatorEngine;
+
+public class MatchRecorder implements MatchObserver {
+  //---FORMAT---//
+  static final int MAGIC = 0x534d5652; //"SMVR"
+  static final short VERSION = 1;
+  static final byte KEYFRAME = 1, DELTA = 2;
+  static final double POSITION_SCALE = 100; //1/100 mm
+  static final double HEADING_SCALE = 1e6;  //microradian
+  static final double HEALTH_SCALE = 10;
+  static final int BOT_FIELDS = 4, BULLET_FIELDS = 3;
+
+  //---PARAMETERS---//
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+  private static final int BUFFER = 1<<16; //64 Ko par enregistreur, agrandi si une frame depasse
+  private static final int MAX_VARINT = 10;
+  private static final OpenOption[] FIRST_FLUSH = { StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE };
+  private static final OpenOption[] NEXT_FLUSH = { StandardOpenOption.WRITE, StandardOpenOption.APPEND };
+
+  //---VARIABLES---//
+  private final Path path;
+  private final int keyframeInterval;
+  private boolean recording; //entre matchStarted et matchEnded
+  private ByteBuffer buffer;
+  private long flushed; //octets deja ecrits dans le fichier
+  private long[] previous = new long[0]; //bots puis balles de la frame precedente, quantifies
+  private int previousBullets;
+  private int[] keyframeTicks = new int[64];
+  private long[] keyframePositions = new long[64];
+  private int keyframes;
+
+  //---CONSTRUCTORS---//
+  public MatchRecorder(String fileName) {
+    this(fileName, DEFAULT_KEYFRAME_INTERVAL);
+  }
+  public MatchRecorder(String fileName, int keyframeInterval) {
+    this.path=Paths.get(fileName);
+    this.keyframeInterval=keyframeInterval;
+  }
+
+  //---OBSERVER---//
+  public void matchStarted(SimulatorEngine engine, ArrayList<Bot> bots) {
+    recording = true;
+    flushed = 0;
+    keyframes = 0;
+    previousBullets = 0;
+    if (buffer == null) buffer = ByteBuffer.allocateDirect(BUFFER);
+    buffer.clear();
+    MatchConfig config = MatchConfig.current();
+    buffer.putInt(MAGIC);
+    buffer.putShort(VERSION);
+    buffer.putInt(keyframeInterval);
+    buffer.putLong(config.getSeed());
+    buffer.putInt(engine.getWorldWidth());
+    buffer.putInt(engine.getWorldHeight());
+    putString(config.getTeamAName());
+    putString(config.getTeamBName());
+    buffer.putInt(bots.size());
+    for (Bot bot : bots) {
+      buffer.putInt(bot.getTeam());
+      buffer.putDouble(bot.getRadius());
+    }
+    previous = new long[bots.size()*BOT_FIELDS];
+    tickEnded(0, bots, new ArrayList<Bullet>());
+  }
+
+  public void tickEnded(int tick, ArrayList<Bot> bots, ArrayList<Bullet> bullets) {
+    int botValues = bots.size()*BOT_FIELDS;
+    ensure(1 + 2*MAX_VARINT + MAX_VARINT*(botValues + bullets.size()*BULLET_FIELDS));
+    if (previous.length < botValues + bullets.size()*BULLET_FIELDS) {
+      long[] grown = new long[Math.max(2*previous.length, botValues + bullets.size()*BULLET_FIELDS)];
+      System.arraycopy(previous, 0, grown, 0, previous.length);
+      previous = grown;
+    }
+
+    boolean keyframe = (tick % keyframeInterval == 0);
+    if (keyframe) {
+      addKeyframe(tick, flushed + buffer.position());
+      buffer.put(KEYFRAME);
+      putVarint(tick);
+      Arrays.fill(previous, 0); //keyframe = ecart a l'etat nul
+      previousBullets = 0;
+    } else {
+      buffer.put(DELTA);
+    }
+
+    int k = 0;
+    for (int i = 0; i < bots.size(); i++) {
+      Bot bot = bots.get(i);
+      k = putDelta(k, Math.round(bot.getX()*POSITION_SCALE));
+      k = putDelta(k, Math.round(bot.getY()*POSITION_SCALE));
+      k = putDelta(k, Math.round(bot.getHeading()*HEADING_SCALE));
+      k = putDelta(k, Math.round(bot.getHealth()*HEALTH_SCALE));
+    }
+    putVarint(bullets.size());
+    for (int i = 0; i < bullets.size(); i++) {
+      Bullet bullet = bullets.get(i);
+      if (i >= previousBullets) for (int f = 0; f < BULLET_FIELDS; f++) previous[k+f] = 0; //nouvelle balle
+      k = putDelta(k, Math.round(bullet.getX()*POSITION_SCALE));
+      k = putDelta(k, Math.round(bullet.getY()*POSITION_SCALE));
+      k = putDelta(k, Math.round(bullet.getHeading()*HEADING_SCALE));
+    }
+    previousBullets = bullets.size();
+  }
+
+  public void matchEnded(MatchResult result) {
+    ensure(4 + keyframes*12 + 4 + 1 + 8 + 4);
+    long indexPosition = flushed + buffer.position();
+    buffer.putInt(keyframes);
+    for (int i = 0; i < keyframes; i++) {
+      buffer.putInt(keyframeTicks[i]);
+      buffer.putLong(keyframePositions[i]);
+    }
+    buffer.putInt(result.getTicks());
+    buffer.put((byte) result.getWinner().ordinal());
+    buffer.putLong(indexPosition);
+    buffer.putInt(MAGIC);
+    flush();
+    recording = false;
+  }
+
+  //fichier incomplet: supprime (rien si le match n'a pas commence ou s'est deja termine)
+  public void matchAborted(Throwable cause) {
+    if (!recording) return;
+    recording = false;
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      cause.addSuppressed(e);
+    }
+  }
+
+  //---UTILS---//
+  //vide le tampon si la frame risque de deborder, l'agrandit si elle n'y tient pas
+  private void ensure(int bytes) {
+    if (buffer.remaining() >= bytes) return;
+    flush();
+    if (buffer.capacity() < bytes) buffer = ByteBuffer.allocateDirect(bytes);
+  }
+  private void flush() {
+    buffer.flip();
+    try {
+      MatchExecutor.blocking(() -> {
+        try (FileChannel channel = FileChannel.open(path, (flushed == 0) ? FIRST_FLUSH : NEXT_FLUSH)) {
+          while (buffer.hasRemaining()) flushed += channel.write(buffer);
+        }
+      });
+    } catch (ClosedByInterruptException e) {
+      throw (CancellationException) new CancellationException("enregistrement interrompu: "+path).initCause(e);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.clear();
+  }
+  private void addKeyframe(int tick, long position) {
+    if (keyframes == keyframeTicks.length) {
+      keyframeTicks = Arrays.copyOf(keyframeTicks, 2*keyframes);
+      keyframePositions = Arrays.copyOf(keyframePositions, 2*keyframes);
+    }
+    keyframeTicks[keyframes] = tick;
+    keyframePositions[keyframes] = position;
+    keyframes++;
+  }
+  private int putDelta(int k, long value) {
+    putVarint(zigzag(value - previous[k]));
+    previous[k] = value;
+    return k+1;
+  }
+  private void putVarint(long value) {
+    while ((value & ~0x7fL) != 0) {
+      buffer.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+  private void putString(String s) {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    buffer.putShort((short) bytes.length);
+    buffer.put(bytes);
+  }
+  static long zigzag(long value) { return (value << 1) ^ (value >> 63); }
+  static long unzigzag(long value) { return (value >>> 1) ^ -(value & 1); }
+}
@@ -0,0 +1,194 @@
+/* ******************************************************
+ * Simovies - Lecture d'un enregistrement de MatchRecorder.
+ * Le fichier est mappe en memoire une fois pour toutes; seek(tick) saute a
+ * la keyframe precedente (index en acces direct: keyframe k = tick k*intervalle)
+ * puis decode au plus intervalle-1 deltas. next() decode la frame suivante.
+ * Aucun re-calcul de simulation: avancer, reculer ou sauter coute au plus
+ * une keyframe et intervalle-1 deltas, quelle que soit la distance.
+ * ******************************************************/
+package supportGUI;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class MatchRecording {
+  //---VARIABLES---//
+  private final MappedByteBuffer buffer;
+  private final int keyframeInterval;
+  private final long seed;
+  private final int worldWidth,worldHeight;
+  private final String teamAName,teamBName;
+  private final int[] teams;
+  private final double[] radius;
+  private final int[] keyframePositions;
+  private final int lastTick;
+  private final MatchResult.Winner winner;
+  private final int framesEnd;
+
+  //etat decode: quantifie (tampon des deltas) et converti
+  private long[] values;
+  private int bullets;
+  private int tick = -1;
+  private final double[] botX,botY,botHeading,botHealth;
+  private double[] bulletX = new double[16], bulletY = new double[16], bulletHeading = new double[16];
+
+  //---CONSTRUCTORS---//
+  public MatchRecording(String fileName) throws IOException {
+    FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+    try {
+      if (channel.size() > Integer.MAX_VALUE) throw new IOException(fileName+": enregistrement trop gros");
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } finally {
+      channel.close(); //le mapping reste valide
+    }
+    try {
+      buffer.position(buffer.limit()-12);
+      int indexPosition = (int) buffer.getLong();
+      if (buffer.getInt() != MatchRecorder.MAGIC) throw new IOException(fileName+": fin d'enregistrement absente");
+      buffer.position(0);
+      if (buffer.getInt() != MatchRecorder.MAGIC) throw new IOException(fileName+": pas un enregistrement Simovies");
+      short version = buffer.getShort();
+      if (version != MatchRecorder.VERSION) throw new IOException(fileName+": version "+version+" non supportee");
+      keyframeInterval = buffer.getInt();
+      seed = buffer.getLong();
+      worldWidth = buffer.getInt();
+      worldHeight = buffer.getInt();
+      teamAName = getString();
+      teamBName = getString();
+      int bots = buffer.getInt();
+      teams = new int[bots];
+      radius = new double[bots];
+      for (int i = 0; i < bots; i++) {
+        teams[i] = buffer.getInt();
+        radius[i] = buffer.getDouble();
+      }
+      framesEnd = indexPosition;
+
+      buffer.position(indexPosition);
+      int keyframes = buffer.getInt();
+      keyframePositions = new int[keyframes];
+      for (int k = 0; k < keyframes; k++) {
+        int keyframeTick = buffer.getInt();
+        keyframePositions[k] = (int) buffer.getLong();
+        if (keyframeTick != k*keyframeInterval) throw new IOException(fileName+": index des keyframes incoherent");
+      }
+      lastTick = buffer.getInt();
+      winner = MatchResult.Winner.values()[buffer.get()];
+    } catch (BufferUnderflowException e) {
+      throw new IOException(fileName+": enregistrement tronque", e);
+    }
+
+    int bots = teams.length;
+    values = new long[bots*MatchRecorder.BOT_FIELDS + 16*MatchRecorder.BULLET_FIELDS];
+    botX = new double[bots];
+    botY = new double[bots];
+    botHeading = new double[bots];
+    botHealth = new double[bots];
+    seek(0);
+  }
+
+  //---NAVIGATION---//
+  public void seek(int target) {
+    target = Math.max(0, Math.min(lastTick, target));
+    if (target < tick || target >= nextKeyframe(tick)) {
+      buffer.position(keyframePositions[target/keyframeInterval]);
+      decodeFrame();
+    }
+    while (tick < target) decodeFrame();
+    convert();
+  }
+  public boolean next() {
+    if (tick >= lastTick || buffer.position() >= framesEnd) return false;
+    decodeFrame();
+    convert();
+    return true;
+  }
+  private int nextKeyframe(int tick) {
+    return (tick < 0) ? 0 : (tick/keyframeInterval + 1)*keyframeInterval;
+  }
+
+  //---DECODING---//
+  //meme parcours que MatchRecorder.tickEnded, en sens inverse
+  private void decodeFrame() {
+    byte tag = buffer.get();
+    if (tag == MatchRecorder.KEYFRAME) {
+      tick = (int) getVarint();
+      Arrays.fill(values, 0);
+      bullets = 0;
+    } else {
+      tick++;
+    }
+    int k = 0;
+    for (int i = 0; i < teams.length*MatchRecorder.BOT_FIELDS; i++) values[k++] += MatchRecorder.unzigzag(getVarint());
+    int count = (int) getVarint();
+    if (values.length < k + count*MatchRecorder.BULLET_FIELDS)
+      values = Arrays.copyOf(values, Math.max(2*values.length, k + count*MatchRecorder.BULLET_FIELDS));
+    for (int i = 0; i < count; i++) {
+      if (i >= bullets) for (int f = 0; f < MatchRecorder.BULLET_FIELDS; f++) values[k+f] = 0; //nouvelle balle
+      for (int f = 0; f < MatchRecorder.BULLET_FIELDS; f++) values[k++] += MatchRecorder.unzigzag(getVarint());
+    }
+    bullets = count;
+  }
+  private void convert() {
+    int k = 0;
+    for (int i = 0; i < teams.length; i++) {
+      botX[i] = values[k++]/MatchRecorder.POSITION_SCALE;
+      botY[i] = values[k++]/MatchRecorder.POSITION_SCALE;
+      botHeading[i] = values[k++]/MatchRecorder.HEADING_SCALE;
+      botHealth[i] = values[k++]/MatchRecorder.HEALTH_SCALE;
+    }
+    if (bulletX.length < bullets) {
+      bulletX = new double[2*bullets];
+      bulletY = new double[2*bullets];
+      bulletHeading = new double[2*bullets];
+    }
+    for (int i = 0; i < bullets; i++) {
+      bulletX[i] = values[k++]/MatchRecorder.POSITION_SCALE;
+      bulletY[i] = values[k++]/MatchRecorder.POSITION_SCALE;
+      bulletHeading[i] = values[k++]/MatchRecorder.HEADING_SCALE;
+    }
+  }
+  private long getVarint() {
+    long value = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      value |= (long) (b & 0x7f) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+  private String getString() {
+    byte[] bytes = new byte[buffer.getShort()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  //---GET/SETTERS---//
+  public int getTick() { return tick; }
+  public int getLastTick() { return lastTick; }
+  public MatchResult.Winner getWinner() { return winner; }
+  public long getSeed() { return seed; }
+  public int getWorldWidth() { return worldWidth; }
+  public int getWorldHeight() { return worldHeight; }
+  public String getTeamAName() { return teamAName; }
+  public String getTeamBName() { return teamBName; }
+  public int getBotCount() { return teams.length; }
+  public int getTeam(int bot) { return teams[bot]; }
+  public double getRadius(int bot) { return radius[bot]; }
+  public double getX(int bot) { return botX[bot]; }
+  public double getY(int bot) { return botY[bot]; }
+  public double getHeading(int bot) { return botHeading[bot]; }
+  public double getHealth(int bot) { return botHealth[bot]; }
+  public int getBulletCount() { return bullets; }
+  public double getBulletX(int bullet) { return bulletX[bullet]; }
+  public double getBulletY(int bullet) { return bulletY[bullet]; }
+  public double getBulletHeading(int bullet) { return bulletHeading[bullet]; }
+}
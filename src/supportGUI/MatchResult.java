@@ -0,0 +1,60 @@
+/* ******************************************************
+ * Simovies - Resultat d'un match joue sans GUI.
+ * Une ligne CSV par match: vainqueur, sante restante, ticks, graine du match
+ * et empreinte de la partie (meme graine => meme empreinte).
+ * ******************************************************/
+package supportGUI;
+
+import characteristics.Parameters;
+
+public class MatchResult {
+  public static enum Winner { TEAM_A, TEAM_B, DRAW };
+  public static final double TEAM_HEALTH = 3*Parameters.teamAMainBotHealth + 2*Parameters.teamASecondaryBotHealth; //sante initiale d'une equipe
+  public static final String CSV_HEADER = "winner,teamAHealth,teamBHealth,teamASurvivors,teamBSurvivors,ticks,seed,checksum";
+
+  //---VARIABLES---//
+  private final Winner winner;
+  private final double teamAHealth,teamBHealth;
+  private final int teamASurvivors,teamBSurvivors;
+  private final int ticks;
+  private final long seed,checksum;
+
+  //---CONSTRUCTORS---//
+  public MatchResult(Winner winner, double teamAHealth, double teamBHealth, int teamASurvivors, int teamBSurvivors, int ticks,
+                     long seed, long checksum) {
+    this.winner=winner;
+    this.teamAHealth=teamAHealth;
+    this.teamBHealth=teamBHealth;
+    this.teamASurvivors=teamASurvivors;
+    this.teamBSurvivors=teamBSurvivors;
+    this.ticks=ticks;
+    this.seed=seed;
+    this.checksum=checksum;
+  }
+
+  //---GET/SETTERS---//
+  public Winner getWinner() { return winner; }
+  public double getTeamAHealth() { return teamAHealth; }
+  public double getTeamBHealth() { return teamBHealth; }
+  public int getTeamASurvivors() { return teamASurvivors; }
+  public int getTeamBSurvivors() { return teamBSurvivors; }
+  public int getTicks() { return ticks; }
+  public long getSeed() { return seed; }
+  public long getChecksum() { return checksum; }
+
+  //points de l'equipe jouant en A (sideA) ou en B: victoire 1, nul 0.5, defaite 0
+  public double getPoints(boolean sideA) {
+    if (winner == Winner.DRAW) return 0.5;
+    return ((winner == Winner.TEAM_A) == sideA) ? 1 : 0;
+  }
+  //sante finale de cette equipe moins celle de l'adversaire, rapportee a TEAM_HEALTH: dans [-1, 1]
+  public double getHealthMargin(boolean sideA) {
+    double margin = (teamAHealth - teamBHealth) / TEAM_HEALTH;
+    return sideA ? margin : -margin;
+  }
+
+  public String toCsv() {
+    return winner+","+(int)teamAHealth+","+(int)teamBHealth+","+teamASurvivors+","+teamBSurvivors+","+ticks+","+seed+","+Long.toHexString(checksum);
+  }
+  public String toString() { return toCsv(); }
+}
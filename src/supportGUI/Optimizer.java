@@ -0,0 +1,375 @@
+/* ******************************************************
+ * Simovies - Reglage d'une equipe par algorithme genetique, sans GUI.
+ * Usage: Optimizer [-g generations] [-P population] [-m matchs] [-j threads]
+ *                  [-c config.properties] [-t maxTicks] [-s graine]
+ *                  [-k checkpoint] [-resume] [-o reglages.properties]
+ *                  equipe [adversaire...]
+ * Un individu est le vecteur TUNING du cerveau main suivi de celui du
+ * secondary (characteristics.Tuning), en coordonnees normalisees [0, 1].
+ * Chaque individu joue -m matchs contre chaque adversaire de chaque cote;
+ * tous les individus d'une generation jouent les memes graines (graine de
+ * base + generation * matchs + m): ecarts de fitness dus aux reglages, pas
+ * au tirage. Fitness: points moyens (victoire 1, nul 0.5) plus une petite
+ * part de l'ecart de sante final, pour departager les nuls.
+ * Generation suivante: elites gardees, puis selection par tournoi,
+ * croisement BLX-alpha et mutation gaussienne; le hasard de la reproduction
+ * derive lui aussi de la graine, un calcul repris donne le meme resultat.
+ * Les matchs d'une generation tournent sur un pool borne de threads (-j,
+ * par defaut un par coeur), agreges dans l'ordre de planification.
+ * Apres chaque generation: population ecrite dans le checkpoint (-k, fichier
+ * temporaire puis renomme), -resume repart de la avec sa graine; meilleur
+ * individu de la generation ecrit dans -o en cles <classe>.Tuning.<NOM>
+ * (MatchConfig), utilisable avec -c pour BatchRunner ou Tournament: les
+ * reglages suivent les classes de l'equipe, de quelque cote qu'elle joue, et
+ * ne touchent pas les autres cerveaux.
+ * Main et secondary de meme classe: un seul vecteur, celui du main.
+ * Sans adversaire: toutes les equipes de Tournament.DEFAULT_LINEUP sauf
+ * celle reglee.
+ * ******************************************************/
+package supportGUI;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import characteristics.MatchConfig;
+import characteristics.Tuning;
+import supportGUI.Tournament.Entrant;
+
+public class Optimizer {
+  //---PARAMETERS---//
+  private static final int ELITES = 2;
+  private static final int TOURNAMENT_SIZE = 3;
+  private static final double BLX_ALPHA = 0.5;
+  private static final double MUTATION_SIGMA = 0.1; //en coordonnees normalisees
+  private static final double HEALTH_WEIGHT = 0.1; //part de l'ecart de sante dans la fitness
+  private static final long GENERATION_STRIDE = 0x9e3779b97f4a7c15L;
+
+  //---VARIABLES---//
+  private final Entrant team;
+  private final List<Entrant> opponents;
+  private final String mainClass,secondaryClass; //noms des classes, cles des reglages
+  private final Tuning mainTuning,secondaryTuning;
+  private final MatchConfig config;
+  private final int matches,threads;
+  private long seed;
+  private double[][] population;
+  private double[] fitness;
+  private int generation;
+
+  //---CONSTRUCTORS---//
+  public Optimizer(Entrant team, List<Entrant> opponents, int populationSize, int matches, int threads, MatchConfig config) {
+    this.team=team;
+    this.opponents=opponents;
+    this.matches=matches;
+    this.threads=threads;
+    this.config=config;
+    seed=config.getSeed();
+    Class<?> main = BrainRegistry.load(team.getMainBrain()), secondary = BrainRegistry.load(team.getSecondaryBrain());
+    mainClass=main.getName();
+    secondaryClass=secondary.getName();
+    mainTuning=Tuning.forBrain(main);
+    secondaryTuning=mainClass.equals(secondaryClass) ? new Tuning() : Tuning.forBrain(secondary);
+    if (dimension() == 0) throw new IllegalArgumentException(team.getName()+": aucun cerveau ne declare de TUNING");
+    if (populationSize <= ELITES) throw new IllegalArgumentException("population trop petite: "+populationSize);
+
+    //individu 0: reglages par defaut, les autres tires au hasard
+    SplittableRandom random = random(-1);
+    population = new double[populationSize][];
+    population[0] = normalize(concat(mainTuning.defaults(), secondaryTuning.defaults()));
+    for (int i = 1; i < populationSize; i++) {
+      population[i] = new double[dimension()];
+      for (int d = 0; d < dimension(); d++) population[i][d] = random.nextDouble();
+    }
+  }
+
+  private int dimension() { return mainTuning.size() + secondaryTuning.size(); }
+  private Tuning.Parameter parameter(int d) {
+    return (d < mainTuning.size()) ? mainTuning.get(d) : secondaryTuning.get(d - mainTuning.size());
+  }
+  private String parameterName(int d) {
+    return ((d < mainTuning.size()) ? "main." : "secondary.")+parameter(d).getName();
+  }
+  private SplittableRandom random(int generation) { return new SplittableRandom(seed + (generation+1) * GENERATION_STRIDE); }
+
+  //---EVALUATION---//
+  //fitness de toute la population, chaque individu jouant les memes graines
+  private void evaluate(ExecutorService pool) throws InterruptedException {
+    long generationSeed = seed + (long) generation * matches;
+    List<Future<MatchResult>> results = new ArrayList<Future<MatchResult>>();
+    for (double[] individual : population) {
+      double[] values = denormalize(individual);
+      double[] mainValues = Arrays.copyOfRange(values, 0, mainTuning.size());
+      double[] secondaryValues = Arrays.copyOfRange(values, mainTuning.size(), values.length);
+      MatchConfig tuned = config.withTuning(mainClass, mainTuning, mainValues).withTuning(secondaryClass, secondaryTuning, secondaryValues);
+      for (Entrant opponent : opponents)
+        for (int m = 0; m < matches; m++) {
+          MatchConfig asA = tuned.withBrains(team.getMainBrain(), team.getSecondaryBrain(), opponent.getMainBrain(), opponent.getSecondaryBrain())
+                                 .withSeed(generationSeed + m);
+          MatchConfig asB = tuned.withBrains(opponent.getMainBrain(), opponent.getSecondaryBrain(), team.getMainBrain(), team.getSecondaryBrain())
+                                 .withSeed(generationSeed + m);
+          results.add(pool.submit(() -> new HeadlessMatch(asA).run()));
+          results.add(pool.submit(() -> new HeadlessMatch(asB).run()));
+        }
+    }
+    //agregation dans l'ordre de planification: resultat identique quel que soit l'ordre de fin
+    int perIndividual = opponents.size() * matches * 2;
+    fitness = new double[population.length];
+    for (int k = 0; k < results.size(); k++) {
+      MatchResult result;
+      try {
+        result = results.get(k).get();
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("match "+k+" de la generation "+generation+" en echec", e.getCause());
+      }
+      fitness[k / perIndividual] += score(result, k % 2 == 0) / perIndividual;
+    }
+  }
+
+  //points de l'equipe reglee, plus l'ecart de sante final ramene a [-HEALTH_WEIGHT, HEALTH_WEIGHT]
+  static double score(MatchResult result, boolean sideA) {
+    return result.getPoints(sideA) + HEALTH_WEIGHT * result.getHealthMargin(sideA);
+  }
+
+  //---REPRODUCTION---//
+  //population triee par fitness decroissante
+  private void sortByFitness() {
+    Integer[] order = new Integer[population.length];
+    for (int i = 0; i < order.length; i++) order[i] = i;
+    Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+    double[][] sortedPopulation = new double[population.length][];
+    double[] sortedFitness = new double[fitness.length];
+    for (int i = 0; i < order.length; i++) {
+      sortedPopulation[i] = population[order[i]];
+      sortedFitness[i] = fitness[order[i]];
+    }
+    population = sortedPopulation;
+    fitness = sortedFitness;
+  }
+
+  private void breed() {
+    SplittableRandom random = random(generation);
+    double[][] next = new double[population.length][];
+    for (int i = 0; i < ELITES; i++) next[i] = population[i].clone();
+    for (int i = ELITES; i < next.length; i++) {
+      double[] a = population[select(random)], b = population[select(random)];
+      double[] child = new double[dimension()];
+      for (int d = 0; d < child.length; d++) {
+        //BLX-alpha: tirage uniforme dans l'intervalle des parents elargi de alpha de chaque cote
+        double low = Math.min(a[d], b[d]), high = Math.max(a[d], b[d]), spread = BLX_ALPHA * (high - low);
+        double gene = low - spread + random.nextDouble() * (high - low + 2 * spread);
+        if (random.nextInt(dimension()) == 0) gene += MUTATION_SIGMA * gaussian(random);
+        child[d] = Math.max(0, Math.min(1, gene));
+      }
+      next[i] = child;
+    }
+    population = next;
+    fitness = null;
+    generation++;
+  }
+
+  //meilleur de TOURNAMENT_SIZE individus tires au hasard (population triee: plus petit indice)
+  private int select(SplittableRandom random) {
+    int best = population.length;
+    for (int i = 0; i < TOURNAMENT_SIZE; i++) best = Math.min(best, random.nextInt(population.length));
+    return best;
+  }
+
+  //Box-Muller
+  private static double gaussian(SplittableRandom random) {
+    return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+  }
+
+  //---VECTORS---//
+  private double[] normalize(double[] values) {
+    double[] unit = new double[values.length];
+    for (int d = 0; d < unit.length; d++) unit[d] = parameter(d).normalize(values[d]);
+    return unit;
+  }
+  private double[] denormalize(double[] unit) {
+    double[] values = new double[unit.length];
+    for (int d = 0; d < values.length; d++) values[d] = parameter(d).denormalize(unit[d]);
+    return values;
+  }
+  private static double[] concat(double[] a, double[] b) {
+    double[] c = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, c, a.length, b.length);
+    return c;
+  }
+
+  public String describe(double[] unit) {
+    double[] values = denormalize(unit);
+    StringBuilder sb = new StringBuilder();
+    for (int d = 0; d < values.length; d++) sb.append((d == 0) ? "" : " ").append(parameterName(d)).append('=').append(parameter(d).format(values[d]));
+    return sb.toString();
+  }
+
+  //---CHECKPOINT---//
+  //population de la generation a evaluer; equipe et parametres verifies a la reprise, graine reprise
+  public void save(Path file) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("team", team.getMainBrain()+","+team.getSecondaryBrain());
+    properties.setProperty("parameters", parameterNames());
+    properties.setProperty("seed", Long.toString(seed));
+    properties.setProperty("generation", Integer.toString(generation));
+    for (int i = 0; i < population.length; i++) properties.setProperty("individual."+i, join(population[i]));
+    Path tmp = file.resolveSibling(file.getFileName()+".tmp");
+    OutputStream out = new FileOutputStream(tmp.toFile());
+    try {
+      properties.store(out, "Simovies Optimizer - "+team.getName());
+    } finally {
+      out.close();
+    }
+    try {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  public void resume(Path file) throws IOException {
+    Properties properties = new Properties();
+    InputStream in = new FileInputStream(file.toFile());
+    try {
+      properties.load(in);
+    } finally {
+      in.close();
+    }
+    if (!(team.getMainBrain()+","+team.getSecondaryBrain()).equals(properties.getProperty("team"))
+        || !parameterNames().equals(properties.getProperty("parameters")))
+      throw new IllegalArgumentException(file+": checkpoint d'une autre equipe ou d'autres parametres");
+    List<double[]> individuals = new ArrayList<double[]>();
+    for (String value; (value = properties.getProperty("individual."+individuals.size())) != null; ) {
+      String[] genes = value.split(",");
+      if (genes.length != dimension()) throw new IllegalArgumentException(file+": individu "+individuals.size()+" de taille "+genes.length);
+      double[] individual = new double[genes.length];
+      for (int d = 0; d < genes.length; d++) individual[d] = Math.max(0, Math.min(1, Double.parseDouble(genes[d])));
+      individuals.add(individual);
+    }
+    if (individuals.size() <= ELITES) throw new IllegalArgumentException(file+": population trop petite");
+    population = individuals.toArray(new double[individuals.size()][]);
+    fitness = null;
+    seed = Long.parseLong(properties.getProperty("seed").trim());
+    generation = Integer.parseInt(properties.getProperty("generation").trim());
+  }
+
+  private String parameterNames() {
+    StringBuilder sb = new StringBuilder();
+    for (int d = 0; d < dimension(); d++) sb.append((d == 0) ? "" : ",").append(parameterName(d));
+    return sb.toString();
+  }
+  private static String join(double[] unit) {
+    StringBuilder sb = new StringBuilder();
+    for (int d = 0; d < unit.length; d++) sb.append((d == 0) ? "" : ",").append(unit[d]);
+    return sb.toString();
+  }
+
+  //reglages de l'individu en cles MatchConfig, par classe de cerveau
+  public void writeTuning(Path file, double[] unit, double fitness) throws IOException {
+    double[] values = denormalize(unit);
+    Properties properties = new Properties();
+    for (int d = 0; d < values.length; d++) {
+      String brainClass = (d < mainTuning.size()) ? mainClass : secondaryClass;
+      properties.setProperty(MatchConfig.tuningKey(brainClass, parameter(d).getName()), parameter(d).format(values[d]));
+    }
+    OutputStream out = new FileOutputStream(file.toFile());
+    try {
+      properties.store(out, String.format("Simovies Optimizer - %s, generation %d, fitness %.3f", team.getName(), generation, fitness));
+    } finally {
+      out.close();
+    }
+  }
+
+  //---OPTIMIZATION---//
+  //evalue et reproduit jusqu'a la generation generations (exclue), checkpoint apres chacune
+  public void run(int generations, Path checkpoint, Path output) throws InterruptedException, IOException {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      while (generation < generations) {
+        long start = System.nanoTime();
+        evaluate(pool);
+        sortByFitness();
+        double mean = 0;
+        for (double f : fitness) mean += f / fitness.length;
+        System.err.printf("generation %d: meilleur %.3f, moyenne %.3f, %.1fs%n", generation, fitness[0], mean, (System.nanoTime() - start) / 1e9);
+        System.out.printf("%d %.3f %s%n", generation, fitness[0], describe(population[0]));
+        if (output != null) writeTuning(output, population[0], fitness[0]);
+        breed();
+        if (checkpoint != null) save(checkpoint);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  //---MAIN---//
+  public static void main(String[] args) throws InterruptedException, IOException {
+    System.setProperty("java.awt.headless", "true");
+
+    int generations = 20, populationSize = 16, matches = 2;
+    int threads = Runtime.getRuntime().availableProcessors();
+    MatchConfig config = MatchConfig.DEFAULT;
+    int maxTicks = -1;
+    Long seed = null;
+    Path checkpoint = null, output = null;
+    boolean resume = false;
+    List<Entrant> entrants = new ArrayList<Entrant>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-g")) generations = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-P")) populationSize = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-m")) matches = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-j")) threads = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-c")) config = MatchConfig.load(args[++i]);
+      else if (args[i].equals("-t")) maxTicks = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-s")) seed = Long.parseLong(args[++i]);
+      else if (args[i].equals("-k")) checkpoint = Paths.get(args[++i]);
+      else if (args[i].equals("-resume")) resume = true;
+      else if (args[i].equals("-o")) output = Paths.get(args[++i]);
+      else entrants.add(Entrant.parse(args[i]));
+    }
+    if (entrants.isEmpty() || (resume && checkpoint == null)) {
+      System.err.println("Usage: Optimizer [-g generations] [-P population] [-m matchs] [-j threads] [-c config.properties] [-t maxTicks] [-s graine]"
+                         +" [-k checkpoint] [-resume] [-o reglages.properties] equipe [adversaire...]");
+      System.exit(1);
+    }
+
+    Entrant team = entrants.remove(0);
+    if (entrants.isEmpty())
+      for (String spec : Tournament.DEFAULT_LINEUP) {
+        Entrant opponent = Entrant.parse(spec);
+        if (!opponent.getMainBrain().equals(team.getMainBrain()) || !opponent.getSecondaryBrain().equals(team.getSecondaryBrain())) entrants.add(opponent);
+      }
+
+    for (Entrant entrant : entrants) { BrainRegistry.factory(entrant.getMainBrain()); BrainRegistry.factory(entrant.getSecondaryBrain()); }
+    BrainRegistry.factory(team.getMainBrain());
+    BrainRegistry.factory(team.getSecondaryBrain());
+    if (maxTicks >= 0) config = config.withMaxTicks(maxTicks);
+    if (seed != null) config = config.withSeed(seed);
+
+    Optimizer optimizer = new Optimizer(team, entrants, populationSize, matches, threads, config);
+    if (resume) {
+      optimizer.resume(checkpoint);
+      System.err.println("reprise a la generation "+optimizer.generation+" ("+optimizer.population.length+" individus)");
+    }
+    System.err.println("graine de base: "+optimizer.seed);
+    long start = System.nanoTime();
+    optimizer.run(generations, checkpoint, output);
+    System.err.printf("%.1fs sur %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+  }
+}
@@ -0,0 +1,233 @@
+/* ******************************************************
+ * Simovies - Comparaison appariee de deux versions d'une equipe, sans GUI
+ * (nombres aleatoires communs).
+ * Usage: PairedEvaluation [-n graines] [-j threads] [-c config.properties] [-t maxTicks] [-s graine]
+ *                         candidat reference [adversaire...]
+ * Pour chaque graine, chaque adversaire et chaque cote, le candidat puis la
+ * reference jouent le meme match: meme graine (graine de base + numero de
+ * graine), donc memes graines par bot (FileLoader les derive de la graine du
+ * match, dans l'ordre des slots), memes tirages de l'adversaire, meme cote.
+ * Les deux matchs forment une paire; seul le cerveau change entre eux. Le
+ * hasard commun s'annule dans la difference candidat - reference, dont la
+ * variance est bien plus petite que celle de deux echantillons independants:
+ * il faut moins de matchs pour un meme intervalle de confiance.
+ * Mesures par paire, du point de vue de chaque version: points (victoire 1,
+ * nul 0.5) et score du reglage (Optimizer.score: points plus une part de
+ * l'ecart de sante). Par adversaire puis au total: moyennes, difference
+ * moyenne et son intervalle de confiance a 95% (Student), demi-largeur de
+ * l'intervalle qu'aurait donne une comparaison non appariee des memes
+ * matchs, et reduction de variance (variance non appariee / appariee,
+ * facteur de matchs economises a precision egale).
+ * Les matchs tournent sur un pool borne de threads (-j, par defaut un par
+ * coeur) et sont agreges dans l'ordre de planification: meme graine, meme
+ * rapport quel que soit -j.
+ * Equipes au format de Tournament; classe@emplacement pour une autre version,
+ * par ex. la nouvelle Team B contre l'ancienne apres ant versions:
+ *   PairedEvaluation TeamB=algorithms.TeamBMainBotMarssoMougamadoubougary,algorithms.TeamBSecondaryBotMarssoMougamadoubougary
+ *     TeamBOld=algorithms.TeamBMainBotMarssoMougamadoubougary@versions/teamB-old/classes,
+ *              algorithms.TeamBSecondaryBotMarssoMougamadoubougary@versions/teamB-old/classes
+ * Sans adversaire: toutes les equipes de Tournament.DEFAULT_LINEUP sauf
+ * candidat et reference.
+ * ******************************************************/
+package supportGUI;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import characteristics.MatchConfig;
+import supportGUI.Tournament.Entrant;
+
+public class PairedEvaluation {
+  //---PARAMETERS---//
+  private static final double Z_95 = 1.959963984540054; //quantile 0.975 de la loi normale
+
+  //---SAMPLES---//
+  //moyenne et variance d'un echantillon, mises a jour a chaque valeur (Welford)
+  static final class Sample {
+    private int n;
+    private double mean,m2;
+
+    void add(double x) {
+      n++;
+      double delta = x - mean;
+      mean += delta / n;
+      m2 += delta * (x - mean);
+    }
+    int size() { return n; }
+    double mean() { return mean; }
+    double variance() { return (n > 1) ? m2 / (n - 1) : 0; }
+  }
+
+  //candidat, reference et leur difference sur les memes paires
+  static final class Comparison {
+    final Sample candidate = new Sample(), baseline = new Sample(), difference = new Sample();
+
+    void add(double candidateValue, double baselineValue) {
+      candidate.add(candidateValue);
+      baseline.add(baselineValue);
+      difference.add(candidateValue - baselineValue);
+    }
+    //demi-largeur de l'intervalle a 95% de la difference moyenne
+    double pairedHalfWidth() {
+      return student95(difference.size() - 1) * Math.sqrt(difference.variance() / difference.size());
+    }
+    //meme chose en traitant candidat et reference comme deux echantillons independants
+    double unpairedHalfWidth() {
+      return student95(2 * candidate.size() - 2) * Math.sqrt((candidate.variance() + baseline.variance()) / candidate.size());
+    }
+    //variance non appariee / appariee, infinie si les paires sont toutes identiques
+    double varianceReduction() {
+      double unpaired = candidate.variance() + baseline.variance();
+      return (difference.variance() > 0) ? unpaired / difference.variance() : (unpaired > 0) ? Double.POSITIVE_INFINITY : 1;
+    }
+  }
+
+  //quantile 0.975 de Student a dof degres de liberte: table jusqu'a 4, puis developpement de Cornish-Fisher (erreur < 3e-3)
+  private static final double[] STUDENT_95 = { Double.NaN, 12.706, 4.303, 3.182, 2.776 };
+  static double student95(int dof) {
+    if (dof < STUDENT_95.length) return STUDENT_95[Math.max(dof, 0)];
+    double z = Z_95, z3 = z*z*z, z5 = z3*z*z, z7 = z5*z*z;
+    return z + (z3 + z) / (4.0 * dof) + (5*z5 + 16*z3 + 3*z) / (96.0 * dof * dof)
+             + (3*z7 + 19*z5 + 17*z3 - 15*z) / (384.0 * dof * dof * dof);
+  }
+
+  //---VARIABLES---//
+  private final Entrant candidate,baseline;
+  private final List<Entrant> opponents;
+  private final int seeds,threads;
+  private final MatchConfig config;
+  private final Comparison[] points,scores; //par adversaire
+  private final Comparison totalPoints = new Comparison(), totalScores = new Comparison();
+
+  //---CONSTRUCTORS---//
+  public PairedEvaluation(Entrant candidate, Entrant baseline, List<Entrant> opponents, int seeds, int threads, MatchConfig config) {
+    this.candidate=candidate;
+    this.baseline=baseline;
+    this.opponents=opponents;
+    this.seeds=seeds;
+    this.threads=threads;
+    this.config=config;
+    points = new Comparison[opponents.size()];
+    scores = new Comparison[opponents.size()];
+    for (int o = 0; o < opponents.size(); o++) { points[o] = new Comparison(); scores[o] = new Comparison(); }
+  }
+
+  //---EVALUATION---//
+  //match k: graine m = k / (4 * adversaires), puis adversaire, cote (A puis B), version (candidat puis reference)
+  public void run() throws InterruptedException {
+    int total = 4 * seeds * opponents.size();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<MatchResult>> results = new ArrayList<Future<MatchResult>>(total);
+      for (int k = 0; k < total; k++) {
+        MatchConfig match = matchConfig(k);
+        results.add(pool.submit(() -> new HeadlessMatch(match).run()));
+      }
+      //agregation dans l'ordre de planification: resultat identique quel que soit l'ordre de fin
+      for (int k = 0; k < total; k += 2) {
+        MatchResult withCandidate = result(results, k), withBaseline = result(results, k+1);
+        int opponent = (k / 4) % opponents.size();
+        boolean sideA = (k / 2) % 2 == 0;
+        points[opponent].add(withCandidate.getPoints(sideA), withBaseline.getPoints(sideA));
+        scores[opponent].add(Optimizer.score(withCandidate, sideA), Optimizer.score(withBaseline, sideA));
+        totalPoints.add(withCandidate.getPoints(sideA), withBaseline.getPoints(sideA));
+        totalScores.add(Optimizer.score(withCandidate, sideA), Optimizer.score(withBaseline, sideA));
+        if ((k+2) % 20 == 0 || k+2 == total) System.err.printf("\r%d/%d matchs", k+2, total);
+      }
+      System.err.println();
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private MatchConfig matchConfig(int k) {
+    Entrant team = (k % 2 == 0) ? candidate : baseline;
+    Entrant opponent = opponents.get((k / 4) % opponents.size());
+    long seed = config.getSeed() + k / (4 * opponents.size());
+    MatchConfig match = ((k / 2) % 2 == 0)
+      ? config.withBrains(team.getMainBrain(), team.getSecondaryBrain(), opponent.getMainBrain(), opponent.getSecondaryBrain())
+      : config.withBrains(opponent.getMainBrain(), opponent.getSecondaryBrain(), team.getMainBrain(), team.getSecondaryBrain());
+    return match.withSeed(seed);
+  }
+
+  private static MatchResult result(List<Future<MatchResult>> results, int k) throws InterruptedException {
+    try {
+      return results.get(k).get();
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("match "+k+" en echec", e.getCause());
+    }
+  }
+
+  //---REPORT---//
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("candidat %s, reference %s: %d paires par adversaire (%d graines, 2 cotes)%n",
+                            candidate.getName(), baseline.getName(), 2 * seeds, seeds));
+    sb.append(String.format("%-20s %6s %7s %7s %18s %7s %18s %7s %8s%n",
+                            "adversaire", "paires", "pts C", "pts R", "diff pts (95%)", "non app", "diff score (95%)", "non app", "reduc"));
+    for (int o = 0; o < opponents.size(); o++) line(sb, opponents.get(o).getName(), points[o], scores[o]);
+    line(sb, "total", totalPoints, totalScores);
+    return sb.toString();
+  }
+
+  private static void line(StringBuilder sb, String name, Comparison points, Comparison scores) {
+    sb.append(String.format("%-20s %6d %7.3f %7.3f %+8.3f +- %6.3f %7.3f %+8.3f +- %6.3f %7.3f %8.1f%n",
+                            name, points.difference.size(), points.candidate.mean(), points.baseline.mean(),
+                            points.difference.mean(), points.pairedHalfWidth(), points.unpairedHalfWidth(),
+                            scores.difference.mean(), scores.pairedHalfWidth(), scores.unpairedHalfWidth(),
+                            scores.varianceReduction()));
+  }
+
+  //---MAIN---//
+  public static void main(String[] args) throws InterruptedException, IOException {
+    System.setProperty("java.awt.headless", "true");
+
+    int seeds = 10;
+    int threads = Runtime.getRuntime().availableProcessors();
+    MatchConfig config = MatchConfig.DEFAULT;
+    int maxTicks = -1;
+    Long seed = null;
+    List<Entrant> entrants = new ArrayList<Entrant>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-n")) seeds = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-j")) threads = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-c")) config = MatchConfig.load(args[++i]);
+      else if (args[i].equals("-t")) maxTicks = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-s")) seed = Long.parseLong(args[++i]);
+      else entrants.add(Entrant.parse(args[i]));
+    }
+    if (entrants.size() < 2 || seeds < 1) {
+      System.err.println("Usage: PairedEvaluation [-n graines] [-j threads] [-c config.properties] [-t maxTicks] [-s graine]"
+                         +" candidat reference [adversaire...]");
+      System.exit(1);
+    }
+
+    Entrant candidate = entrants.remove(0), baseline = entrants.remove(0);
+    if (entrants.isEmpty())
+      for (String spec : Tournament.DEFAULT_LINEUP) {
+        Entrant opponent = Entrant.parse(spec);
+        if (!sameBrains(opponent, candidate) && !sameBrains(opponent, baseline)) entrants.add(opponent);
+      }
+
+    for (Entrant entrant : entrants) { BrainRegistry.factory(entrant.getMainBrain()); BrainRegistry.factory(entrant.getSecondaryBrain()); }
+    for (Entrant entrant : new Entrant[] { candidate, baseline }) { BrainRegistry.factory(entrant.getMainBrain()); BrainRegistry.factory(entrant.getSecondaryBrain()); }
+    if (maxTicks >= 0) config = config.withMaxTicks(maxTicks);
+    if (seed != null) config = config.withSeed(seed);
+    System.err.println("graine de base: "+config.getSeed());
+
+    PairedEvaluation evaluation = new PairedEvaluation(candidate, baseline, entrants, seeds, threads, config);
+    long start = System.nanoTime();
+    evaluation.run();
+    System.out.print(evaluation.report());
+    System.err.printf("%.1fs sur %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+  }
+
+  private static boolean sameBrains(Entrant a, Entrant b) {
+    return a.getMainBrain().equals(b.getMainBrain()) && a.getSecondaryBrain().equals(b.getSecondaryBrain());
+  }
+}
@@ -0,0 +1,153 @@
+/* ******************************************************
+ * Simovies - Relecture d'un match enregistre (MatchRecorder).
+ * Usage: ReplayViewer fichier.smr [tick]
+ * Curseur: saut direct a n'importe quel tick. Vitesse negative: lecture
+ * a l'envers. Le Timer avance de |vitesse| ticks toutes les 10ms, comme le
+ * Timer de SimulatorEngine a x1; chaque image est un seek() dans le fichier
+ * mappe, sans rejouer la simulation.
+ * ******************************************************/
+package supportGUI;
+
+import java.awt.BasicStroke;
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.io.IOException;
+
+import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JSlider;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+public class ReplayViewer extends JPanel {
+  private static final long serialVersionUID = 1L;
+
+  //---PARAMETERS---//
+  private static final int TIMER_DELAY = 10; //ms, meme cadence que le Timer de SimulatorEngine
+  private static final Integer[] SPEEDS = { -64, -16, -4, -1, 1, 4, 16, 64 };
+  private static final Color BACKGROUND = new Color(40, 40, 40);
+  private static final Color WRECK = Color.GRAY;
+  private static final Color BULLET = Color.ORANGE;
+
+  //---VARIABLES---//
+  private final MatchRecording recording;
+  private final JSlider slider;
+  private final JLabel status;
+  private final Timer timer;
+  private int speed = 1;
+  private boolean updatingSlider;
+
+  //---CONSTRUCTORS---//
+  public ReplayViewer(MatchRecording recording) {
+    this.recording=recording;
+    setBackground(BACKGROUND);
+    setPreferredSize(new Dimension(recording.getWorldWidth()/3, recording.getWorldHeight()/3));
+
+    slider = new JSlider(0, recording.getLastTick(), recording.getTick());
+    slider.addChangeListener(e -> { if (!updatingSlider) show(slider.getValue()); });
+    status = new JLabel();
+    timer = new Timer(TIMER_DELAY, e -> advance());
+    updateStatus();
+  }
+
+  //---CONTROLS---//
+  public JPanel controls() {
+    final JButton play = new JButton("Lecture");
+    play.addActionListener(e -> {
+      if (timer.isRunning()) { timer.stop(); play.setText("Lecture"); }
+      else { timer.start(); play.setText("Pause"); }
+    });
+    final JComboBox<Integer> speeds = new JComboBox<Integer>(SPEEDS);
+    speeds.setSelectedItem(speed);
+    speeds.addActionListener(e -> speed = (Integer) speeds.getSelectedItem());
+
+    JPanel buttons = new JPanel();
+    buttons.add(play);
+    buttons.add(new JLabel("vitesse"));
+    buttons.add(speeds);
+    buttons.add(status);
+    JPanel controls = new JPanel(new BorderLayout());
+    controls.add(slider, BorderLayout.CENTER);
+    controls.add(buttons, BorderLayout.SOUTH);
+    return controls;
+  }
+
+  private void advance() {
+    int target = recording.getTick() + speed;
+    if (target < 0 || target > recording.getLastTick()) timer.stop();
+    if (speed == 1) recording.next(); else recording.seek(target);
+    updatingSlider = true;
+    slider.setValue(recording.getTick());
+    updatingSlider = false;
+    updateStatus();
+    repaint();
+  }
+  public void show(int tick) {
+    recording.seek(tick);
+    updateStatus();
+    repaint();
+  }
+  private void updateStatus() {
+    double healthA = 0, healthB = 0;
+    int teamA = recording.getTeam(0);
+    for (int i = 0; i < recording.getBotCount(); i++) {
+      double health = Math.max(0, recording.getHealth(i));
+      if (recording.getTeam(i) == teamA) healthA += health; else healthB += health;
+    }
+    status.setText(String.format("tick %d/%d - %s %.0f / %s %.0f - vainqueur: %s", recording.getTick(), recording.getLastTick(),
+                                 recording.getTeamAName(), healthA, recording.getTeamBName(), healthB, recording.getWinner()));
+  }
+
+  //---DRAWING---//
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    Graphics2D g2 = (Graphics2D) g;
+    g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    double scale = Math.min(getWidth()/(double) recording.getWorldWidth(), getHeight()/(double) recording.getWorldHeight());
+
+    g2.setColor(Color.DARK_GRAY.brighter());
+    g2.drawRect(0, 0, (int) (recording.getWorldWidth()*scale), (int) (recording.getWorldHeight()*scale));
+    g2.setStroke(new BasicStroke(2));
+    for (int i = 0; i < recording.getBotCount(); i++) {
+      double x = recording.getX(i)*scale, y = recording.getY(i)*scale, r = recording.getRadius(i)*scale;
+      boolean alive = recording.getHealth(i) > 0;
+      g2.setColor(alive ? new Color(recording.getTeam(i)) : WRECK);
+      g2.fillOval((int) (x-r), (int) (y-r), (int) (2*r), (int) (2*r));
+      if (!alive) continue;
+      g2.setColor(Color.WHITE);
+      g2.drawLine((int) x, (int) y, (int) (x + r*Math.cos(recording.getHeading(i))), (int) (y + r*Math.sin(recording.getHeading(i))));
+      g2.drawString(Integer.toString((int) recording.getHealth(i)), (int) (x-r), (int) (y-r));
+    }
+    g2.setColor(BULLET);
+    for (int i = 0; i < recording.getBulletCount(); i++) {
+      int x = (int) (recording.getBulletX(i)*scale), y = (int) (recording.getBulletY(i)*scale);
+      g2.fillOval(x-2, y-2, 4, 4);
+    }
+  }
+
+  //---MAIN---//
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: ReplayViewer fichier.smr [tick]");
+      System.exit(1);
+    }
+    final MatchRecording recording = new MatchRecording(args[0]);
+    if (args.length > 1) recording.seek(Integer.parseInt(args[1]));
+    SwingUtilities.invokeLater(() -> {
+      ReplayViewer viewer = new ReplayViewer(recording);
+      JFrame frame = new JFrame("Simovies - replay "+args[0]);
+      frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+      frame.add(viewer, BorderLayout.CENTER);
+      frame.add(viewer.controls(), BorderLayout.SOUTH);
+      frame.pack();
+      frame.setVisible(true);
+    });
+  }
+}
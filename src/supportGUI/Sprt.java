@@ -0,0 +1,96 @@
+/* ******************************************************
+ * Simovies - Test sequentiel du rapport de vraisemblance (SPRT) entre
+ * deux strategies.
+ * H0: l'ecart d'elo du candidat sur la reference vaut elo0; H1: il vaut
+ * elo1. Apres chaque match, le log du rapport de vraisemblance (LLR) est
+ * compare aux bornes de Wald, ln(beta/(1-alpha)) et ln((1-beta)/alpha):
+ * sous la premiere H0 est acceptee, au-dessus de la seconde H1; entre les
+ * deux on continue. alpha: risque d'accepter H1 a tort, beta: H0 a tort.
+ * LLR: approximation normale du modele victoire/nul/defaite,
+ *   N (s1 - s0) (2 s - s0 - s1) / (2 var)
+ * avec s le score moyen, var sa variance par match et s0, s1 les scores
+ * attendus a elo0, elo1 (courbe logistique). Une victoire et une defaite
+ * fictives s'ajoutent aux comptes: la variance n'est jamais nulle, et
+ * quelques victoires d'affilee ne concluent pas a elles seules.
+ * ******************************************************/
+package supportGUI;
+
+public final class Sprt {
+  //---PARAMETERS---//
+  public enum Decision { CONTINUE, H0, H1 }
+  public static final double DEFAULT_ALPHA = 0.05, DEFAULT_BETA = 0.05;
+
+  //---VARIABLES---//
+  private final double elo0,elo1,alpha,beta;
+  private final double lower,upper;
+  private int wins,draws,losses;
+
+  //---CONSTRUCTORS---//
+  public Sprt(double elo0, double elo1, double alpha, double beta) {
+    if (!(elo0 < elo1)) throw new IllegalArgumentException("SPRT: il faut elo0 < elo1");
+    if (!(alpha > 0 && alpha < 0.5 && beta > 0 && beta < 0.5)) throw new IllegalArgumentException("SPRT: alpha et beta dans ]0, 0.5[");
+    this.elo0=elo0;
+    this.elo1=elo1;
+    this.alpha=alpha;
+    this.beta=beta;
+    lower=Math.log(beta / (1 - alpha));
+    upper=Math.log((1 - beta) / alpha);
+  }
+
+  //"elo0,elo1" ou "elo0,elo1,alpha,beta"
+  public static Sprt parse(String spec) {
+    String[] values = spec.split(",");
+    if (values.length != 2 && values.length != 4) throw new IllegalArgumentException("SPRT: elo0,elo1[,alpha,beta] attendu: "+spec);
+    try {
+      double elo0 = Double.parseDouble(values[0].trim()), elo1 = Double.parseDouble(values[1].trim());
+      if (values.length == 2) return new Sprt(elo0, elo1, DEFAULT_ALPHA, DEFAULT_BETA);
+      return new Sprt(elo0, elo1, Double.parseDouble(values[2].trim()), Double.parseDouble(values[3].trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("SPRT: valeur invalide: "+spec, e);
+    }
+  }
+
+  //---TEST---//
+  //resultat d'un match du point de vue du candidat
+  public void record(MatchResult.Winner winner, boolean candidateIsA) {
+    if (winner == MatchResult.Winner.DRAW) draws++;
+    else if ((winner == MatchResult.Winner.TEAM_A) == candidateIsA) wins++;
+    else losses++;
+  }
+
+  public double llr() {
+    double w = wins + 1, d = draws, l = losses + 1, n = w + d + l;
+    double s = (w + 0.5 * d) / n;
+    double var = (w * (1 - s) * (1 - s) + d * (0.5 - s) * (0.5 - s) + l * s * s) / n;
+    double s0 = expectedScore(elo0), s1 = expectedScore(elo1);
+    return n * (s1 - s0) * (2 * s - s0 - s1) / (2 * var);
+  }
+
+  public Decision decision() {
+    double llr = llr();
+    return (llr >= upper) ? Decision.H1 : (llr <= lower) ? Decision.H0 : Decision.CONTINUE;
+  }
+
+  private static double expectedScore(double elo) { return 1 / (1 + Math.pow(10, -elo / 400)); }
+
+  //ecart d'elo estime d'apres le score (comptes reels), infini si tout gagne ou tout perdu
+  public double elo() {
+    int n = getGames();
+    if (n == 0) return 0;
+    double s = (wins + 0.5 * draws) / n;
+    return -400 * Math.log10(1 / s - 1);
+  }
+
+  //---GET/SETTERS---//
+  public int getGames() { return wins + draws + losses; }
+  public int getWins() { return wins; }
+  public int getDraws() { return draws; }
+  public int getLosses() { return losses; }
+  public double getLowerBound() { return lower; }
+  public double getUpperBound() { return upper; }
+
+  public String summary() {
+    return String.format("SPRT elo0=%.1f elo1=%.1f alpha=%.3f beta=%.3f: %d matchs (V %d, N %d, D %d), elo %+.1f, LLR %.2f [%.2f, %.2f] -> %s",
+                         elo0, elo1, alpha, beta, getGames(), wins, draws, losses, elo(), llr(), lower, upper, decision());
+  }
+}
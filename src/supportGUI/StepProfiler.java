@@ -0,0 +1,126 @@
+/* ******************************************************
+ * Simovies - Profil des cerveaux: duree de activate()/step() et memoire
+ * allouee par step, par classe de cerveau, sur tous les matchs profiles.
+ * Opt-in: HeadlessMatch.setProfiler(profiler). Pendant le match, le
+ * profiler est lie au thread (comme MatchConfig) et FileLoader enveloppe
+ * chaque cerveau dans un robotsimulator.ProfiledBrain qui ecrit dans son
+ * propre Profile, sans verrou. A la fin du match, les Profile du match
+ * sont fusionnes par classe (synchronise: les matchs d'un Tournament
+ * tournent en parallele).
+ * Mesure: System.nanoTime() autour de Brain.activation()/stepAction(),
+ * soit le code du cerveau plus l'action envoyee au moteur; octets alloues
+ * par le thread (com.sun.management.ThreadMXBean) avant/apres chaque step,
+ * si la JVM le permet.
+ * ******************************************************/
+package supportGUI;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import characteristics.IBrain;
+import robotsimulator.Brain;
+import robotsimulator.ProfiledBrain;
+
+public final class StepProfiler {
+  //---PARAMETERS---//
+  private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+  private static final ThreadLocal<List<Profile>> session = new ThreadLocal<List<Profile>>();
+
+  //---PROFILE---//
+  //mesures d'un cerveau (un thread) ou cumul d'une classe
+  public static final class Profile {
+    private final String brainClass;
+    private final LatencyHistogram activate = new LatencyHistogram(), step = new LatencyHistogram();
+    private long allocatedBytes,allocationSamples;
+
+    private Profile(String brainClass) { this.brainClass=brainClass; }
+
+    public void recordActivate(long nanos) { activate.record(nanos); }
+    //bytes < 0: allocation non mesuree
+    public void recordStep(long nanos, long bytes) {
+      step.record(nanos);
+      if (bytes >= 0) { allocatedBytes += bytes; allocationSamples++; }
+    }
+    private void merge(Profile other) {
+      activate.merge(other.activate);
+      step.merge(other.step);
+      allocatedBytes += other.allocatedBytes;
+      allocationSamples += other.allocationSamples;
+    }
+
+    public String getBrainClass() { return brainClass; }
+    public LatencyHistogram getActivate() { return activate; }
+    public LatencyHistogram getStep() { return step; }
+    public double getBytesPerStep() { return (allocationSamples == 0) ? Double.NaN : (double) allocatedBytes / allocationSamples; }
+  }
+
+  //---VARIABLES---//
+  private final Map<String,Profile> totals = new TreeMap<String,Profile>();
+  private int matches;
+
+  //---SESSION---//
+  //lie au thread du match par HeadlessMatch, autour de la creation des cerveaux et du match
+  void begin() { session.set(new ArrayList<Profile>()); }
+  void end() {
+    List<Profile> profiles = session.get();
+    session.remove();
+    if (profiles == null) return;
+    synchronized (this) {
+      for (Profile profile : profiles) {
+        Profile total = totals.get(profile.brainClass);
+        if (total == null) totals.put(profile.brainClass, total = new Profile(profile.brainClass));
+        total.merge(profile);
+      }
+      matches++;
+    }
+  }
+
+  //cerveau enveloppe si un match profile tourne sur ce thread, sinon brain tel quel
+  public static IBrain wrap(IBrain brain) {
+    List<Profile> profiles = session.get();
+    if (profiles == null || !(brain instanceof Brain)) return brain;
+    Profile profile = new Profile(brain.getClass().getName());
+    profiles.add(profile);
+    return new ProfiledBrain((Brain) brain, profile);
+  }
+
+  //octets alloues par le thread courant, -1 si la JVM ne le mesure pas
+  public static long allocatedBytes() {
+    return (THREADS == null) ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+  private static com.sun.management.ThreadMXBean allocationCounter() {
+    try {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+      if (!threads.isThreadAllocatedMemorySupported()) return null;
+      if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+      return threads;
+    } catch (UnsupportedOperationException e) {
+      return null;
+    }
+  }
+
+  //---REPORT---//
+  //une ligne par classe, la plus couteuse en temps total de step d'abord; durees en microsecondes
+  public synchronized String report() {
+    List<Profile> order = new ArrayList<Profile>(totals.values());
+    order.sort((a, b) -> Long.compare(b.step.getTotal(), a.step.getTotal()));
+    long all = 0;
+    for (Profile p : order) all += p.step.getTotal();
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("profil des cerveaux sur %d match(s), durees en us%n", matches));
+    sb.append(String.format("%-52s %9s %8s %8s %9s %6s %9s %9s%n", "cerveau", "steps", "p50", "p99", "max", "temps", "act.max", "octets/step"));
+    for (Profile p : order) {
+      double share = (all == 0) ? 0 : 100.0 * p.step.getTotal() / all;
+      double bytes = p.getBytesPerStep();
+      sb.append(String.format("%-52s %9d %8.1f %8.1f %9.1f %5.1f%% %9.1f %9s%n", p.brainClass, p.step.getCount(),
+                              p.step.percentile(0.5) / 1e3, p.step.percentile(0.99) / 1e3, p.step.getMax() / 1e3, share,
+                              p.activate.getMax() / 1e3, Double.isNaN(bytes) ? "-" : String.format("%.0f", bytes)));
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,88 @@
+/* ******************************************************
+ * Simovies - Chargeur de classes d'une version de strategie.
+ * Une version (jar ou dossier de classes, par ex. versions/teamB-old/classes
+ * produit par ant versions) est chargee dans son propre chargeur, enfant de
+ * celui du simulateur: ses classes passent avant celles du classpath, si
+ * bien que deux versions d'un meme cerveau (meme nom de classe) jouent l'une
+ * contre l'autre dans la meme JVM.
+ * Les paquets partages avec le moteur (java, characteristics, playground,
+ * robotsimulator, supportGUI) viennent toujours du parent: IBrain, Brain,
+ * MatchConfig et BotLog sont les memes pour toutes les versions. Toute autre
+ * classe vient de la version seule: une classe absente (SnapshotBrain,
+ * Heading... du tree courant) est une erreur de chargement, pas un retour
+ * silencieux au parent qui ferait jouer la version avec du code recent.
+ * Une version embarque donc ses classes d'aide (copiees dans son src).
+ * Un chargeur par emplacement pour toute la JVM (forLocation): les matchs
+ * d'une meme version partagent ses classes.
+ * Nom de cerveau avec emplacement: classe@emplacement, voir BrainRegistry.
+ * ******************************************************/
+package supportGUI;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class StrategyClassLoader extends URLClassLoader {
+  //---PARAMETERS---//
+  private static final String[] SHARED_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun.",
+                                                    "characteristics.", "playground.", "robotsimulator.", "supportGUI." };
+  private static final ConcurrentMap<Path,StrategyClassLoader> loaders = new ConcurrentHashMap<Path,StrategyClassLoader>();
+
+  static { registerAsParallelCapable(); }
+
+  //---VARIABLES---//
+  private final Path location;
+
+  //---CONSTRUCTORS---//
+  private StrategyClassLoader(Path location, ClassLoader parent) throws MalformedURLException {
+    super(new URL[] { location.toUri().toURL() }, parent);
+    this.location=location;
+  }
+
+  //chargeur de la version a cet emplacement, cree au premier appel
+  public static StrategyClassLoader forLocation(String location) {
+    Path path = Paths.get(location).toAbsolutePath().normalize();
+    if (!Files.exists(path)) throw new IllegalArgumentException("version introuvable: "+location);
+    return loaders.computeIfAbsent(path, p -> {
+      try {
+        return new StrategyClassLoader(p, StrategyClassLoader.class.getClassLoader());
+      } catch (MalformedURLException e) {
+        throw new IllegalArgumentException("emplacement invalide: "+location, e);
+      }
+    });
+  }
+
+  //---LOADING---//
+  //paquets partages par le parent, le reste par la version seule
+  @Override
+  protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+    if (isShared(name)) return super.loadClass(name, resolve);
+    synchronized (getClassLoadingLock(name)) {
+      Class<?> type = findLoadedClass(name);
+      if (type == null) {
+        try {
+          type = findClass(name);
+        } catch (ClassNotFoundException e) {
+          throw new ClassNotFoundException(name+" absente de la version "+location+" (hors paquets du moteur)", e);
+        }
+      }
+      if (resolve) resolveClass(type);
+      return type;
+    }
+  }
+
+  private static boolean isShared(String name) {
+    for (String prefix : SHARED_PACKAGES) if (name.startsWith(prefix)) return true;
+    return false;
+  }
+
+  //---GET/SETTERS---//
+  public Path getLocation() { return location; }
+  @Override
+  public String toString() { return "StrategyClassLoader["+location+"]"; }
+}
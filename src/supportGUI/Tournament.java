@@ -0,0 +1,288 @@
+/* ******************************************************
+ * Simovies - Tournoi toutes rondes sans GUI, en parallele.
+ * Chaque paire d'equipes joue -r rondes; une ronde = deux matchs,
+ * cotes A/B inverses. Les matchs sont independants et tournent sur
+ * un pool borne de threads (-j, par defaut un par coeur).
+ * Usage: Tournament [-r rondes] [-j threads] [-virtual] [-c config.properties] [-t maxTicks] [-s graine]
+ *                   [-R dossier] [-p] [-sprt elo0,elo1[,alpha,beta]] [equipe...]
+ * -virtual soumet tous les matchs a la fois, un thread virtuel chacun, dont
+ * -j calculent en meme temps (MatchExecutor, Java 21; pool de -j threads
+ * sinon). Dans les deux modes, debit (matchs/s) et utilisation CPU sont
+ * affiches a la fin.
+ * Tous les matchs partagent la configuration -c; seuls les cerveaux changent.
+ * Le match k du calendrier joue avec la graine (graine de base + k), -s pour la
+ * fixer: meme graine, meme classement, quel que soit le nombre de threads.
+ * -R enregistre chaque match (MatchRecorder) dans dossier/<k>-<A>-<B>.smr.
+ * -p profile les cerveaux (StepProfiler) et affiche leur profil a la fin.
+ * -sprt compare deux equipes, candidat puis reference, par un test
+ * sequentiel (Sprt): paires de matchs cotes inverses jusqu'a la decision,
+ * au plus -r paires (par defaut DEFAULT_SPRT_PAIRS). Les resultats arrivent
+ * des threads au fil de l'eau (CompletionService) mais sont comptes dans
+ * l'ordre du calendrier: meme graine, meme decision quel que soit -j. Des
+ * la decision, les matchs en cours sont interrompus et les suivants jamais
+ * lances; avec -R, seuls les matchs joues jusqu'au bout gardent leur
+ * enregistrement.
+ * Une equipe s'ecrit nom=classeMain[,classeSecondary] ou classe seule;
+ * classe@emplacement charge une autre version de la classe (jar ou dossier,
+ * voir StrategyClassLoader), par ex. pour jouer l'ancienne Team B contre la
+ * nouvelle apres ant versions:
+ *   TeamBOld=algorithms.TeamBMainBotMarssoMougamadoubougary@versions/teamB-old/classes,
+ *            algorithms.TeamBSecondaryBotMarssoMougamadoubougary@versions/teamB-old/classes
+ * ******************************************************/
+package supportGUI;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+import characteristics.MatchConfig;
+
+public class Tournament {
+  //---PARAMETERS---//
+  public static final String[] DEFAULT_LINEUP = {
+    "algorithms.BrainCanevas", "algorithms.RandomFire", "algorithms.CampFire", "algorithms.CampBot",
+    "algorithms.Mule", "algorithms.BootingBerzerk", "algorithms.HighwayFugitive", "algorithms.Combinaison",
+    "TeamA=algorithms.TeamAMainBotMarssoMougamadoubougary,algorithms.TeamASecondaryBotMarssoMougamadoubougary",
+    "TeamB=algorithms.TeamBMainBotMarssoMougamadoubougary,algorithms.TeamBSecondaryBotMarssoMougamadoubougary"
+  };
+  public static final int DEFAULT_SPRT_PAIRS = 1000;
+
+  //---ENTRANTS---//
+  public static class Entrant {
+    private final String name,mainBrain,secondaryBrain;
+
+    public Entrant(String name, String mainBrain, String secondaryBrain) {
+      this.name=name;
+      this.mainBrain=mainBrain;
+      this.secondaryBrain=secondaryBrain;
+    }
+    //"nom=main,secondary", "nom=classe" ou "classe"; une classe peut s'ecrire classe@emplacement (BrainRegistry)
+    public static Entrant parse(String spec) {
+      String name = null;
+      int eq = spec.indexOf('=');
+      if (eq >= 0) { name = spec.substring(0, eq); spec = spec.substring(eq+1); }
+      String[] classes = spec.split(",");
+      if (name == null) {
+        String main = (classes[0].indexOf('@') < 0) ? classes[0] : classes[0].substring(0, classes[0].indexOf('@'));
+        name = main.substring(main.lastIndexOf('.')+1);
+      }
+      return new Entrant(name, classes[0], (classes.length > 1) ? classes[1] : classes[0]);
+    }
+    public String getName() { return name; }
+    public String getMainBrain() { return mainBrain; }
+    public String getSecondaryBrain() { return secondaryBrain; }
+  }
+
+  //---VARIABLES---//
+  private final List<Entrant> entrants;
+  private final int rounds,threads;
+  private final MatchConfig config;
+  private MatchExecutor.Mode mode = MatchExecutor.Mode.PLATFORM;
+  private File records; //null: pas d'enregistrement
+  private StepProfiler profiler; //null: pas de profil
+  private final double[][] points;
+  private final int[][] games;
+  private final int[][] wdl; //victoires, nuls, defaites par equipe
+
+  //---CONSTRUCTORS---//
+  public Tournament(List<Entrant> entrants, int rounds, int threads, MatchConfig config) {
+    this.entrants=entrants;
+    this.rounds=rounds;
+    this.threads=threads;
+    this.config=config;
+    int n = entrants.size();
+    points = new double[n][n];
+    games = new int[n][n];
+    wdl = new int[n][3];
+  }
+
+  //---GET/SETTERS---//
+  public void setMode(MatchExecutor.Mode mode) { this.mode=mode; }
+  public void setRecords(File records) { this.records=records; }
+  public void setProfiler(StepProfiler profiler) { this.profiler=profiler; }
+
+  //---TOURNAMENT---//
+  public void run() throws InterruptedException {
+    List<int[]> pairings = new ArrayList<int[]>(); //{equipe A, equipe B}
+    for (int i = 0; i < entrants.size(); i++)
+      for (int j = i+1; j < entrants.size(); j++)
+        for (int r = 0; r < rounds; r++) {
+          pairings.add(new int[] { i, j });
+          pairings.add(new int[] { j, i });
+        }
+
+    MatchExecutor pool = new MatchExecutor(mode, threads);
+    try {
+      List<Future<MatchResult>> results = new ArrayList<Future<MatchResult>>(pairings.size());
+      for (int k = 0; k < pairings.size(); k++) {
+        HeadlessMatch match = match(k, entrants.get(pairings.get(k)[0]), entrants.get(pairings.get(k)[1]));
+        results.add(pool.submit(() -> match.run()));
+      }
+      //agregation dans l'ordre de planification: resultat identique quel que soit l'ordre de fin
+      for (int k = 0; k < pairings.size(); k++) {
+        MatchResult result;
+        try {
+          result = results.get(k).get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("match "+k+" en echec", e.getCause());
+        }
+        record(pairings.get(k)[0], pairings.get(k)[1], result.getWinner());
+        if ((k+1) % 10 == 0 || k+1 == pairings.size()) System.err.printf("\r%d/%d matchs", k+1, pairings.size());
+      }
+      System.err.println();
+    } finally {
+      pool.shutdownNow();
+    }
+    pool.awaitTermination();
+    System.err.println(pool.report());
+  }
+
+  //match k du calendrier, graine de base + k
+  private HeadlessMatch match(int k, Entrant a, Entrant b) {
+    HeadlessMatch match = new HeadlessMatch(config.withBrains(a.mainBrain, a.secondaryBrain, b.mainBrain, b.secondaryBrain)
+                                                  .withSeed(config.getSeed()+k));
+    if (records != null) match.setObserver(new MatchRecorder(recordFile(k, a, b).getPath()));
+    match.setProfiler(profiler);
+    return match;
+  }
+  private File recordFile(int k, Entrant a, Entrant b) {
+    return new File(records, k+"-"+a.name+"-"+b.name+".smr");
+  }
+
+  //---SPRT---//
+  //candidat (equipe 0) contre reference (equipe 1): match 2p candidat en A, 2p+1 en B, p < rounds
+  public Sprt.Decision runSprt(Sprt sprt) throws InterruptedException {
+    int total = 2 * rounds, inFlight = 2 * threads;
+    MatchExecutor pool = new MatchExecutor(mode, threads);
+    CompletionService<MatchResult> completion = new ExecutorCompletionService<MatchResult>(pool);
+    Map<Future<MatchResult>,Integer> running = new HashMap<Future<MatchResult>,Integer>();
+    List<Integer> cancelled = new ArrayList<Integer>();
+    MatchResult[] results = new MatchResult[total]; //arrives, pas encore comptes si apres un trou
+    int submitted = 0, counted = 0;
+    Sprt.Decision decision = Sprt.Decision.CONTINUE;
+    try {
+      for (; submitted < Math.min(total, inFlight); submitted++) running.put(submitSprtMatch(completion, submitted), submitted);
+      while (decision == Sprt.Decision.CONTINUE && counted < total) {
+        Future<MatchResult> done = completion.take();
+        int k = running.remove(done);
+        try {
+          results[k] = done.get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("match "+k+" en echec", e.getCause());
+        }
+        if (submitted < total) { running.put(submitSprtMatch(completion, submitted), submitted); submitted++; }
+        //comptage dans l'ordre du calendrier
+        while (decision == Sprt.Decision.CONTINUE && counted < total && results[counted] != null) {
+          boolean candidateIsA = counted % 2 == 0;
+          record(candidateIsA ? 0 : 1, candidateIsA ? 1 : 0, results[counted].getWinner());
+          sprt.record(results[counted].getWinner(), candidateIsA);
+          results[counted++] = null;
+          decision = sprt.decision();
+        }
+        if (counted % 10 == 0 || decision != Sprt.Decision.CONTINUE) System.err.printf("\r%d matchs, LLR %.2f", counted, sprt.llr());
+      }
+      System.err.println();
+    } finally {
+      for (Map.Entry<Future<MatchResult>,Integer> entry : running.entrySet())
+        if (entry.getKey().cancel(true)) cancelled.add(entry.getValue());
+      pool.shutdownNow();
+    }
+    pool.awaitTermination();
+    //un match interrompu supprime son enregistrement (MatchRecorder.matchAborted); reste celui d'un match
+    //annule entre la fin de run() et celle de sa Future: complet, mais jamais compte
+    if (records != null)
+      for (int k : cancelled) recordFile(k, entrants.get(k % 2), entrants.get(1 - k % 2)).delete();
+    System.err.println(pool.report());
+    System.err.printf("%d/%d matchs comptes, %d lances%n", counted, total, submitted);
+    return decision;
+  }
+
+  private Future<MatchResult> submitSprtMatch(CompletionService<MatchResult> completion, int k) {
+    HeadlessMatch match = (k % 2 == 0) ? match(k, entrants.get(0), entrants.get(1)) : match(k, entrants.get(1), entrants.get(0));
+    return completion.submit(() -> match.run());
+  }
+
+  private void record(int a, int b, MatchResult.Winner winner) {
+    double scoreA = (winner == MatchResult.Winner.TEAM_A) ? 1 : (winner == MatchResult.Winner.DRAW) ? 0.5 : 0;
+    points[a][b] += scoreA;
+    points[b][a] += 1 - scoreA;
+    games[a][b]++;
+    games[b][a]++;
+    if (winner == MatchResult.Winner.DRAW) { wdl[a][1]++; wdl[b][1]++; }
+    else if (winner == MatchResult.Winner.TEAM_A) { wdl[a][0]++; wdl[b][2]++; }
+    else { wdl[b][0]++; wdl[a][2]++; }
+  }
+
+  public String standings() {
+    final double[] elo = EloRating.compute(points, games);
+    List<Integer> order = new ArrayList<Integer>();
+    for (int i = 0; i < entrants.size(); i++) order.add(i);
+    order.sort((x, y) -> Double.compare(elo[y], elo[x]));
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%-20s %5s %5s %5s %7s %7s%n", "equipe", "V", "N", "D", "points", "elo"));
+    for (int i : order) {
+      double total = 0;
+      for (int j = 0; j < entrants.size(); j++) total += points[i][j];
+      sb.append(String.format("%-20s %5d %5d %5d %7.1f %+7.0f%n", entrants.get(i).name, wdl[i][0], wdl[i][1], wdl[i][2], total, elo[i]));
+    }
+    return sb.toString();
+  }
+
+  //---MAIN---//
+  public static void main(String[] args) throws InterruptedException, IOException {
+    System.setProperty("java.awt.headless", "true");
+
+    int rounds = -1;
+    int threads = Runtime.getRuntime().availableProcessors();
+    MatchConfig config = MatchConfig.DEFAULT;
+    int maxTicks = -1;
+    Long seed = null;
+    File records = null;
+    boolean profile = false;
+    Sprt sprt = null;
+    MatchExecutor.Mode mode = MatchExecutor.Mode.PLATFORM;
+    List<Entrant> entrants = new ArrayList<Entrant>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("-r")) rounds = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-j")) threads = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-virtual")) mode = MatchExecutor.Mode.VIRTUAL;
+      else if (args[i].equals("-c")) config = MatchConfig.load(args[++i]);
+      else if (args[i].equals("-t")) maxTicks = Integer.parseInt(args[++i]);
+      else if (args[i].equals("-s")) seed = Long.parseLong(args[++i]);
+      else if (args[i].equals("-R")) records = new File(args[++i]);
+      else if (args[i].equals("-p")) profile = true;
+      else if (args[i].equals("-sprt")) sprt = Sprt.parse(args[++i]);
+      else entrants.add(Entrant.parse(args[i]));
+    }
+    if (entrants.isEmpty()) for (String spec : DEFAULT_LINEUP) entrants.add(Entrant.parse(spec));
+    if (entrants.size() < 2 || (sprt != null && entrants.size() != 2)) {
+      System.err.println("Usage: Tournament [-r rondes] [-j threads] [-virtual] [-c config.properties] [-t maxTicks] [-s graine] [-R dossier] [-p]"
+                         +" [-sprt elo0,elo1[,alpha,beta] candidat reference | equipe...]");
+      System.exit(1);
+    }
+    if (rounds < 0) rounds = (sprt != null) ? DEFAULT_SPRT_PAIRS : 1;
+
+    for (Entrant entrant : entrants) { BrainRegistry.factory(entrant.mainBrain); BrainRegistry.factory(entrant.secondaryBrain); }
+    if (maxTicks >= 0) config = config.withMaxTicks(maxTicks);
+    if (seed != null) config = config.withSeed(seed);
+    System.err.println("graine de base: "+config.getSeed());
+
+    Tournament tournament = new Tournament(entrants, rounds, threads, config);
+    tournament.setMode(mode);
+    if (records != null) { records.mkdirs(); tournament.setRecords(records); }
+    StepProfiler profiler = profile ? new StepProfiler() : null;
+    tournament.setProfiler(profiler);
+    if (sprt != null) tournament.runSprt(sprt); else tournament.run();
+    System.out.print(tournament.standings());
+    if (sprt != null) System.out.println(sprt.summary());
+    if (profiler != null) System.out.print(profiler.report());
+  }
+}